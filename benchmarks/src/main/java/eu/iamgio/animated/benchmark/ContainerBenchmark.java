@@ -0,0 +1,72 @@
+package eu.iamgio.animated.benchmark;
+
+import eu.iamgio.animated.transition.AnimationPair;
+import eu.iamgio.animated.transition.container.AnimatedVBox;
+import javafx.scene.Node;
+import javafx.scene.shape.Rectangle;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of inserting and removing a child of an {@link AnimatedVBox} that contains N children,
+ * including the relocation of the following siblings, which is deferred to the JavaFX thread.
+ * {@link #baseline()} measures the hops to the JavaFX thread alone.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContainerBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int children;
+
+    private AnimatedVBox container;
+    private List<Node> nodes;
+    private Node node;
+
+    @Setup(Level.Trial)
+    public void setupContainer() {
+        HeadlessFx.start();
+        HeadlessFx.run(() -> {
+            container = new AnimatedVBox(AnimationPair.fade());
+            nodes = new ArrayList<>();
+            for (int i = 0; i < children; i++) {
+                nodes.add(new Rectangle(100, 20));
+            }
+            node = new Rectangle(100, 20);
+        });
+    }
+
+    @Setup(Level.Invocation)
+    public void resetChildren() {
+        HeadlessFx.run(() -> {
+            container.pause();
+            container.getChildren().setAll(nodes);
+            container.resume();
+        });
+    }
+
+    @Benchmark
+    public void insert() {
+        HeadlessFx.run(() -> container.getChildren().add(0, node));
+        HeadlessFx.flush();
+    }
+
+    @Benchmark
+    public void remove() {
+        HeadlessFx.run(() -> container.getChildren().remove(0));
+        HeadlessFx.flush();
+    }
+
+    @Benchmark
+    public void baseline() {
+        HeadlessFx.run(() -> {});
+        HeadlessFx.flush();
+    }
+}
@@ -0,0 +1,68 @@
+package eu.iamgio.animated.benchmark;
+
+import eu.iamgio.animated.common.Curve;
+import eu.iamgio.animated.common.LutCurve;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluation cost of every {@link Curve}: analytic, sampled into a lookup table, and through the boxed adapters.
+ * The accuracy of the lookup table is reported by {@link LutCurve#getMaxError()}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CurveBenchmark {
+
+    // Amount of precomputed inputs, a power of two
+    private static final int INPUTS = 1024;
+
+    @Param
+    private Curve curve;
+
+    @Param("256")
+    private int resolution;
+
+    private LutCurve lut;
+    private final double[] inputs = new double[INPUTS];
+    private int index;
+
+    @Setup
+    public void setup() {
+        lut = curve.sampled(resolution);
+
+        final Random random = new Random(42);
+        for (int i = 0; i < INPUTS; i++) {
+            inputs[i] = random.nextDouble();
+        }
+    }
+
+    private double next() {
+        return inputs[index++ & (INPUTS - 1)];
+    }
+
+    @Benchmark
+    public double analytic() {
+        return curve.evaluate(next());
+    }
+
+    @Benchmark
+    public double sampled() {
+        return lut.evaluate(next());
+    }
+
+    @Benchmark
+    public double boxedFunction() {
+        return curve.getCurveFunction().apply(next());
+    }
+
+    @Benchmark
+    public double interpolator() {
+        return curve.toInterpolator().interpolate(0.0, 1.0, next());
+    }
+}
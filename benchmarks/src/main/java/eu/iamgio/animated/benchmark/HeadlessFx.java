@@ -0,0 +1,79 @@
+package eu.iamgio.animated.benchmark;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Starts the JavaFX toolkit without a display, via Monocle, and runs code on the JavaFX Application Thread.
+ */
+public final class HeadlessFx {
+
+    private static boolean started;
+
+    private HeadlessFx() {
+    }
+
+    /**
+     * Starts the toolkit with the headless Monocle platform, if it was not started yet.
+     */
+    public static synchronized void start() {
+        if (started) {
+            return;
+        }
+
+        System.setProperty("glass.platform", "Monocle");
+        System.setProperty("monocle.platform", "Headless");
+        System.setProperty("prism.order", "sw");
+        System.setProperty("prism.text", "t2k");
+        System.setProperty("java.awt.headless", "true");
+
+        final CountDownLatch latch = new CountDownLatch(1);
+        Platform.startup(latch::countDown);
+        Platform.setImplicitExit(false);
+        await(latch);
+
+        started = true;
+    }
+
+    /**
+     * Runs an action on the JavaFX Application Thread and waits for it to complete.
+     * @param action action to run
+     */
+    public static void run(Runnable action) {
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+        final CountDownLatch latch = new CountDownLatch(1);
+
+        Platform.runLater(() -> {
+            try {
+                action.run();
+            } catch (Throwable e) {
+                error.set(e);
+            } finally {
+                latch.countDown();
+            }
+        });
+        await(latch);
+
+        if (error.get() != null) {
+            throw new IllegalStateException(error.get());
+        }
+    }
+
+    /**
+     * Waits until every action queued on the JavaFX Application Thread so far has been executed.
+     */
+    public static void flush() {
+        run(() -> {});
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package eu.iamgio.animated.benchmark;
+
+import eu.iamgio.animated.binding.Animated;
+import eu.iamgio.animated.binding.presets.AnimatedOpacity;
+import javafx.scene.shape.Rectangle;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of registering an {@link eu.iamgio.animated.binding.property.animation.OnDemandAnimationProperty},
+ * both independently and by attaching it to an {@link Animated} node.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OnDemandRegistrationBenchmark {
+
+    // Registrations per invocation, which amortize the hop to the JavaFX thread
+    private static final int REGISTRATIONS = 100;
+
+    private Rectangle[] nodes;
+
+    @Setup(Level.Trial)
+    public void setupToolkit() {
+        HeadlessFx.start();
+    }
+
+    // Fresh nodes avoid accumulating listeners across invocations
+    @Setup(Level.Invocation)
+    public void setupNodes() {
+        nodes = new Rectangle[REGISTRATIONS];
+        for (int i = 0; i < REGISTRATIONS; i++) {
+            nodes[i] = new Rectangle(10, 10);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REGISTRATIONS)
+    public void register() {
+        HeadlessFx.run(() -> {
+            for (Rectangle node : nodes) {
+                new AnimatedOpacity(node).register();
+            }
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REGISTRATIONS)
+    public Animated attach() {
+        final Animated[] animated = new Animated[1];
+        HeadlessFx.run(() -> {
+            for (Rectangle node : nodes) {
+                animated[0] = new Animated(node, new AnimatedOpacity());
+            }
+        });
+        return animated[0];
+    }
+}
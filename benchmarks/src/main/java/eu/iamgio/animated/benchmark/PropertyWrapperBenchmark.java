@@ -0,0 +1,75 @@
+package eu.iamgio.animated.benchmark;
+
+import eu.iamgio.animated.binding.property.wrapper.DoublePropertyWrapper;
+import eu.iamgio.animated.binding.property.wrapper.PropertyWrapper;
+import javafx.beans.property.SimpleDoubleProperty;
+import javafx.beans.property.SimpleIntegerProperty;
+import javafx.beans.property.SimpleObjectProperty;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Get and set cost of each {@link PropertyWrapper} implementation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PropertyWrapperBenchmark {
+
+    private DoublePropertyWrapper doubleWrapper;
+    private PropertyWrapper<Integer> integerWrapper;
+    private PropertyWrapper<String> objectWrapper;
+
+    private int counter;
+
+    @Setup
+    public void setup() {
+        doubleWrapper = new DoublePropertyWrapper(new SimpleDoubleProperty());
+        integerWrapper = PropertyWrapper.of(new SimpleIntegerProperty());
+        objectWrapper = PropertyWrapper.of(new SimpleObjectProperty<>());
+    }
+
+    @Benchmark
+    public Double doubleGet() {
+        return doubleWrapper.getValue();
+    }
+
+    @Benchmark
+    public void doubleSet() {
+        doubleWrapper.set((double) counter++);
+    }
+
+    @Benchmark
+    public double doubleGetPrimitive() {
+        return doubleWrapper.getDouble();
+    }
+
+    @Benchmark
+    public void doubleSetPrimitive() {
+        doubleWrapper.setDouble(counter++);
+    }
+
+    @Benchmark
+    public Integer integerGet() {
+        return integerWrapper.getValue();
+    }
+
+    @Benchmark
+    public void integerSet() {
+        integerWrapper.set(counter++);
+    }
+
+    @Benchmark
+    public String objectGet() {
+        return objectWrapper.getValue();
+    }
+
+    @Benchmark
+    public void objectSet() {
+        objectWrapper.set((counter++ & 1) == 0 ? "a" : "b");
+    }
+}
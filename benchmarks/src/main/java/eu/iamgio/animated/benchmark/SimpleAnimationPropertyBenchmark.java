@@ -0,0 +1,68 @@
+package eu.iamgio.animated.benchmark;
+
+import eu.iamgio.animated.binding.AnimationSettings;
+import eu.iamgio.animated.binding.InterruptionPolicy;
+import eu.iamgio.animated.binding.property.animation.AnimationProperty;
+import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.SimpleDoubleProperty;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of handling an external change of the property wrapped by a
+ * {@link eu.iamgio.animated.binding.property.animation.SimpleAnimationProperty}, for each playback mode.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimpleAnimationPropertyBenchmark {
+
+    // Changes per invocation, which amortize the hop to the JavaFX thread
+    private static final int CHANGES = 1000;
+
+    public enum Mode {
+        TIMELINE, SCHEDULED, RETARGET, COALESCING
+    }
+
+    @Param
+    private Mode mode;
+
+    private DoubleProperty property;
+
+    @Setup
+    public void setup() {
+        HeadlessFx.start();
+        HeadlessFx.run(() -> {
+            property = new SimpleDoubleProperty();
+
+            final AnimationSettings settings = new AnimationSettings();
+            switch (mode) {
+                case SCHEDULED:
+                    settings.withScheduled(true);
+                    break;
+                case RETARGET:
+                    settings.withInterruptionPolicy(InterruptionPolicy.RETARGET_PRESERVE_VELOCITY);
+                    break;
+                case COALESCING:
+                    settings.withScheduled(true).withCoalescing(true);
+                    break;
+            }
+
+            AnimationProperty.of(property).withSettings(settings).register();
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHANGES)
+    public void change() {
+        HeadlessFx.run(() -> {
+            for (int i = 0; i < CHANGES; i++) {
+                property.set(i);
+            }
+        });
+    }
+}
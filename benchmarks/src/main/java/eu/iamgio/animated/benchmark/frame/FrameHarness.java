@@ -0,0 +1,211 @@
+package eu.iamgio.animated.benchmark.frame;
+
+import com.sun.javafx.tk.Toolkit;
+import eu.iamgio.animated.benchmark.HeadlessFx;
+import eu.iamgio.animated.binding.property.animation.AnimationScheduler;
+import javafx.scene.Scene;
+import javafx.scene.layout.Pane;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Drives the JavaFX animation pulse by hand, with a fixed time step, and measures what happens on each pulse.
+ * <p>
+ * The master timer of the toolkit is paused, so that animations advance only when {@link #pulse(Runnable)} is called,
+ * and always by exactly one frame (1/60 of a second by default), regardless of how long the pulse took to compute.
+ * This makes runs deterministic and comparable across machines.
+ * A pulse measures the CPU time and the memory allocated by the JavaFX Application Thread while it:
+ * <ol>
+ *     <li>runs the given update (e.g. user input) and the actions it queued via <tt>Platform.runLater</tt>;</li>
+ *     <li>advances timelines, transitions and animation timers by one frame;</li>
+ *     <li>applies CSS and lays out the scene, running the pre- and post-layout pulse listeners of the scene around it.</li>
+ * </ol>
+ * Rendering is not part of the measurements.
+ * <p>
+ * The toolkit has to be started through {@link #start()}, before it is started by anything else.
+ */
+public final class FrameHarness {
+
+    // Makes the master timer advance by a fixed amount on each pulse. Read once, when the toolkit starts
+    private static final String FIXED_PULSE_PROPERTY = "com.sun.scenario.animation.fixed.pulse.length";
+
+    // Upper bound of the pulses spent waiting for the animations of a scenario to end
+    private static final int MAX_DRAIN_PULSES = 60 * 10;
+
+    private final Object masterTimer;
+    private final Method timePulse;
+    private final Field receiversLength;
+    private final Field animationTimersLength;
+    private final long pulseNanos;
+    private final Method doCssPass;
+    private final Method doLayoutPass;
+    private final Field preLayoutPulseListeners;
+    private final Field postLayoutPulseListeners;
+
+    private final com.sun.management.ThreadMXBean threads;
+    private final long fxThreadId;
+
+    private FrameHarness() throws ReflectiveOperationException {
+        this.masterTimer = Toolkit.getToolkit().getMasterTimer();
+
+        final Class<?> timerClass = Class.forName("com.sun.scenario.animation.AbstractMasterTimer");
+        this.timePulse = accessible(timerClass.getDeclaredMethod("timePulseImpl", long.class));
+        this.receiversLength = accessible(timerClass.getDeclaredField("receiversLength"));
+        this.animationTimersLength = accessible(timerClass.getDeclaredField("animationTimersLength"));
+        this.pulseNanos = accessible(timerClass.getDeclaredField("fixedPulseLength")).getLong(masterTimer);
+        this.doCssPass = accessible(Scene.class.getDeclaredMethod("doCSSPass"));
+        this.doLayoutPass = accessible(Scene.class.getDeclaredMethod("doLayoutPass"));
+        this.preLayoutPulseListeners = accessible(Scene.class.getDeclaredField("preLayoutPulseListeners"));
+        this.postLayoutPulseListeners = accessible(Scene.class.getDeclaredField("postLayoutPulseListeners"));
+
+        if (pulseNanos <= 0) {
+            throw new IllegalStateException("The JavaFX toolkit was started before the frame harness.");
+        }
+
+        this.threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        this.threads.setThreadAllocatedMemoryEnabled(true);
+
+        final long[] id = new long[1];
+        HeadlessFx.run(() -> {
+            id[0] = Thread.currentThread().getId();
+            // From now on, pulses are fired only by the harness
+            Toolkit.getToolkit().getMasterTimer().pause();
+        });
+        this.fxThreadId = id[0];
+    }
+
+    /**
+     * Starts the JavaFX toolkit with a fixed pulse length and takes control of its pulses.
+     * @return the harness
+     * @throws IllegalStateException if the toolkit was already started, or its timer cannot be accessed
+     */
+    public static FrameHarness start() {
+        System.setProperty(FIXED_PULSE_PROPERTY, "true");
+        HeadlessFx.start();
+
+        try {
+            return new FrameHarness();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not access the master timer of the JavaFX toolkit.", e);
+        }
+    }
+
+    /**
+     * @return simulated duration of a pulse, in nanoseconds
+     */
+    public long getPulseNanos() {
+        return pulseNanos;
+    }
+
+    /**
+     * Runs a scenario.
+     * @param scenario scenario to run
+     * @param widgets amount of animated widgets the scenario is populated with
+     * @param pulses amount of pulses to simulate
+     * @return measurements of the run
+     */
+    public FrameReport run(Scenario scenario, int widgets, int pulses) {
+        final Scene[] scene = new Scene[1];
+        HeadlessFx.run(() -> {
+            final Pane root = new Pane();
+            scene[0] = new Scene(root, 800, 600);
+            scenario.setup(scene[0], root, widgets);
+        });
+
+        // Setup work and the animations it triggered do not count towards the measurements
+        drain(scene[0]);
+
+        final List<PulseSample> samples = new ArrayList<>(pulses);
+        for (int i = 0; i < pulses; i++) {
+            final int index = i;
+            samples.add(pulse(scene[0], () -> scenario.update(index)));
+        }
+
+        // Let running animations end before the next scenario
+        drain(scene[0]);
+
+        return new FrameReport(scenario.getName(), widgets, pulseNanos, samples);
+    }
+
+    /**
+     * Simulates pulses until every running animation ends.
+     * @param scene scene to lay out
+     */
+    private void drain(Scene scene) {
+        pulse(scene, () -> {});
+        for (int i = 0; i < MAX_DRAIN_PULSES && activeAnimations() > 0; i++) {
+            pulse(scene, () -> {});
+        }
+    }
+
+    /**
+     * Simulates a pulse.
+     * @param scene scene to lay out
+     * @param update action to run before the animations advance
+     * @return measurements of the pulse
+     */
+    private PulseSample pulse(Scene scene, Runnable update) {
+        final int[] counts = new int[2];
+
+        final long cpu = threads.getThreadCpuTime(fxThreadId);
+        final long allocated = threads.getThreadAllocatedBytes(fxThreadId);
+
+        HeadlessFx.run(update);
+        // Actions queued by the update run before this one
+        HeadlessFx.run(() -> {
+            try {
+                timePulse.invoke(masterTimer, 0L);
+                counts[0] = receiversLength.getInt(masterTimer);
+                counts[1] = animationTimersLength.getInt(masterTimer);
+                runPulseListeners(scene, preLayoutPulseListeners);
+                // Only the nodes whose CSS is dirty are styled, as in a real pulse
+                doCssPass.invoke(scene);
+                doLayoutPass.invoke(scene);
+                runPulseListeners(scene, postLayoutPulseListeners);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        HeadlessFx.flush();
+
+        return new PulseSample(
+                threads.getThreadCpuTime(fxThreadId) - cpu,
+                threads.getThreadAllocatedBytes(fxThreadId) - allocated,
+                counts[0], counts[1], AnimationScheduler.getInstance().getActiveCount()
+        );
+    }
+
+    /**
+     * Runs the pre- or post-layout pulse listeners of a scene, as a real pulse does.
+     * @param scene scene whose listeners should run
+     * @param listeners field of the listeners to run
+     */
+    @SuppressWarnings("unchecked")
+    private static void runPulseListeners(Scene scene, Field listeners) throws IllegalAccessException {
+        final List<Runnable> runnables = (List<Runnable>) listeners.get(scene);
+        if (runnables != null) {
+            // Listeners may remove themselves
+            for (Runnable runnable : new ArrayList<>(runnables)) {
+                runnable.run();
+            }
+        }
+    }
+
+    private int activeAnimations() {
+        try {
+            return receiversLength.getInt(masterTimer) + AnimationScheduler.getInstance().getActiveCount();
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static <T extends AccessibleObject> T accessible(T member) {
+        member.setAccessible(true);
+        return member;
+    }
+}
@@ -0,0 +1,92 @@
+package eu.iamgio.animated.benchmark.frame;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Aggregated measurements of a scenario run.
+ */
+public final class FrameReport {
+
+    private final String scenario;
+    private final int widgets;
+    private final long budgetNanos;
+    private final List<PulseSample> samples;
+
+    FrameReport(String scenario, int widgets, long budgetNanos, List<PulseSample> samples) {
+        this.scenario = scenario;
+        this.widgets = widgets;
+        this.budgetNanos = budgetNanos;
+        this.samples = Collections.unmodifiableList(samples);
+    }
+
+    /**
+     * @return measurements of each pulse, in order
+     */
+    public List<PulseSample> getSamples() {
+        return samples;
+    }
+
+    /**
+     * @param percentile percentile, from 0 to 100
+     * @return CPU time of the pulse at the given percentile, in nanoseconds
+     */
+    public long getCpuPercentile(double percentile) {
+        final long[] sorted = samples.stream().mapToLong(PulseSample::getCpuNanos).sorted().toArray();
+        if (sorted.length == 0) {
+            return 0;
+        }
+        final int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    /**
+     * @return amount of pulses whose CPU time exceeded the frame budget
+     */
+    public long getDroppedPulses() {
+        return samples.stream().filter(sample -> sample.getCpuNanos() > budgetNanos).count();
+    }
+
+    /**
+     * @return average bytes allocated per pulse
+     */
+    public double getAverageAllocatedBytes() {
+        return samples.stream().mapToLong(PulseSample::getAllocatedBytes).average().orElse(0);
+    }
+
+    /**
+     * @return highest amount of animations that were running at the same time, across all engines
+     */
+    public int getPeakActiveAnimations() {
+        return samples.stream()
+                .mapToInt(sample -> sample.getActiveAnimations() + sample.getActiveTimers() + sample.getScheduledAnimations())
+                .max().orElse(0);
+    }
+
+    /**
+     * @return header of the table produced by {@link #toString()}
+     */
+    public static String header() {
+        return String.format("%-22s %8s %10s %10s %10s %9s %14s %12s",
+                "Scenario", "Widgets", "p50 (us)", "p95 (us)", "max (us)", "Dropped", "Alloc/pulse", "Peak anims");
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-22s %8d %10.1f %10.1f %10.1f %9d %14s %12d",
+                scenario, widgets,
+                getCpuPercentile(50) / 1e3, getCpuPercentile(95) / 1e3, getCpuPercentile(100) / 1e3,
+                getDroppedPulses(), formatBytes(getAverageAllocatedBytes()), getPeakActiveAnimations());
+    }
+
+    private static String formatBytes(double bytes) {
+        final List<String> units = Arrays.asList("B", "KB", "MB", "GB");
+        int unit = 0;
+        while (bytes >= 1024 && unit < units.size() - 1) {
+            bytes /= 1024;
+            unit++;
+        }
+        return String.format("%.1f %s", bytes, units.get(unit));
+    }
+}
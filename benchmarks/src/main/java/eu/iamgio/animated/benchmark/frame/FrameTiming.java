@@ -0,0 +1,58 @@
+package eu.iamgio.animated.benchmark.frame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs every built-in {@link Scenario} on the {@link FrameHarness} and prints a report of the pulses.
+ * <p>
+ * Usage: <tt>FrameTiming [widgets...] [--pulses N]</tt>. Defaults to 10, 100 and 1000 widgets and 300 pulses.
+ */
+public final class FrameTiming {
+
+    private FrameTiming() {
+    }
+
+    public static void main(String[] args) {
+        int pulses = 300;
+        final List<Integer> widgets = new ArrayList<>();
+
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--pulses")) {
+                pulses = Integer.parseInt(args[++i]);
+            } else {
+                widgets.add(Integer.parseInt(args[i]));
+            }
+        }
+        if (widgets.isEmpty()) {
+            widgets.add(10);
+            widgets.add(100);
+            widgets.add(1000);
+        }
+
+        try {
+            final FrameHarness harness = FrameHarness.start();
+
+            // Warms up the JIT, so that the first scenarios are not penalized
+            for (Scenario scenario : Scenarios.all()) {
+                harness.run(scenario, 10, pulses);
+            }
+
+            System.out.printf("%d pulses of %.2f ms per run, CPU time of the JavaFX Application Thread%n%n",
+                    pulses, harness.getPulseNanos() / 1e6);
+            System.out.println(FrameReport.header());
+
+            for (int count : widgets) {
+                for (Scenario scenario : Scenarios.all()) {
+                    System.out.println(harness.run(scenario, count, pulses));
+                }
+            }
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+
+        // The JavaFX Application Thread would keep the JVM alive
+        System.exit(0);
+    }
+}
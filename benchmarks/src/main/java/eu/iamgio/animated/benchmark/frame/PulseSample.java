@@ -0,0 +1,56 @@
+package eu.iamgio.animated.benchmark.frame;
+
+/**
+ * Measurements of a single simulated pulse.
+ */
+public final class PulseSample {
+
+    private final long cpuNanos;
+    private final long allocatedBytes;
+    private final int activeAnimations;
+    private final int activeTimers;
+    private final int scheduledAnimations;
+
+    PulseSample(long cpuNanos, long allocatedBytes, int activeAnimations, int activeTimers, int scheduledAnimations) {
+        this.cpuNanos = cpuNanos;
+        this.allocatedBytes = allocatedBytes;
+        this.activeAnimations = activeAnimations;
+        this.activeTimers = activeTimers;
+        this.scheduledAnimations = scheduledAnimations;
+    }
+
+    /**
+     * @return CPU time spent by the JavaFX Application Thread, in nanoseconds
+     */
+    public long getCpuNanos() {
+        return cpuNanos;
+    }
+
+    /**
+     * @return bytes allocated by the JavaFX Application Thread
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * @return amount of JavaFX animations (e.g. timelines) registered on the pulse after it ran
+     */
+    public int getActiveAnimations() {
+        return activeAnimations;
+    }
+
+    /**
+     * @return amount of animation timers registered on the pulse after it ran
+     */
+    public int getActiveTimers() {
+        return activeTimers;
+    }
+
+    /**
+     * @return amount of animations running on the shared scheduler after the pulse ran
+     */
+    public int getScheduledAnimations() {
+        return scheduledAnimations;
+    }
+}
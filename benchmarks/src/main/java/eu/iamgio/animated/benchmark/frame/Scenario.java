@@ -0,0 +1,29 @@
+package eu.iamgio.animated.benchmark.frame;
+
+import javafx.scene.Scene;
+import javafx.scene.layout.Pane;
+
+/**
+ * A scene populated with animated widgets, whose state is updated on every simulated pulse.
+ */
+public interface Scenario {
+
+    /**
+     * @return display name of the scenario
+     */
+    String getName();
+
+    /**
+     * Populates the scene. Called on the JavaFX Application Thread.
+     * @param scene scene to populate
+     * @param root root of the scene
+     * @param widgets amount of animated widgets to create
+     */
+    void setup(Scene scene, Pane root, int widgets);
+
+    /**
+     * Updates the widgets before a pulse. Called on the JavaFX Application Thread.
+     * @param pulse index of the upcoming pulse
+     */
+    void update(int pulse);
+}
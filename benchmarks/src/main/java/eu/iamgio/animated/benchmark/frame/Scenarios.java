@@ -0,0 +1,218 @@
+package eu.iamgio.animated.benchmark.frame;
+
+import eu.iamgio.animated.binding.Animated;
+import eu.iamgio.animated.binding.presets.AnimatedOpacity;
+import eu.iamgio.animated.binding.presets.AnimatedScale;
+import eu.iamgio.animated.transition.AnimatedSwitcher;
+import eu.iamgio.animated.transition.AnimatedThemeSwitcher;
+import eu.iamgio.animated.transition.AnimationPair;
+import eu.iamgio.animated.transition.container.AnimatedVBox;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.layout.FlowPane;
+import javafx.scene.layout.Pane;
+import javafx.scene.layout.Region;
+import javafx.scene.shape.Rectangle;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Built-in scenarios, one for each animated component.
+ * Each of them triggers a change every {@link #PERIOD} pulses,
+ * which is shorter than the default animation duration, so that running animations get interrupted.
+ * Scenarios do not contain text, so that they do not depend on the native font libraries of the machine.
+ */
+public final class Scenarios {
+
+    // Amount of pulses between two changes
+    static final int PERIOD = 20;
+
+    private Scenarios() {
+    }
+
+    /**
+     * @return every built-in scenario
+     */
+    public static List<Scenario> all() {
+        return Arrays.asList(animated(), switcher(), vbox(), themeSwitcher());
+    }
+
+    /**
+     * @return N {@link Animated} nodes, whose opacity and scale change at once
+     */
+    public static Scenario animated() {
+        return new Scenario() {
+            private final List<Node> nodes = new ArrayList<>();
+
+            @Override
+            public String getName() {
+                return "Animated";
+            }
+
+            @Override
+            public void setup(Scene scene, Pane root, int widgets) {
+                final FlowPane pane = new FlowPane();
+                for (int i = 0; i < widgets; i++) {
+                    final Rectangle rectangle = new Rectangle(10, 10);
+                    nodes.add(rectangle);
+                    pane.getChildren().add(new Animated(rectangle, new AnimatedOpacity(), new AnimatedScale()));
+                }
+                root.getChildren().add(pane);
+            }
+
+            @Override
+            public void update(int pulse) {
+                if (pulse % PERIOD != 0) {
+                    return;
+                }
+                final boolean shrink = (pulse / PERIOD) % 2 == 0;
+                for (Node node : nodes) {
+                    node.setOpacity(shrink ? 0.5 : 1);
+                    node.setScaleX(shrink ? 0.5 : 1);
+                    node.setScaleY(shrink ? 0.5 : 1);
+                }
+            }
+        };
+    }
+
+    /**
+     * @return N {@link AnimatedSwitcher}s, whose child is replaced at once
+     */
+    public static Scenario switcher() {
+        return new Scenario() {
+            private final List<AnimatedSwitcher> switchers = new ArrayList<>();
+
+            @Override
+            public String getName() {
+                return "AnimatedSwitcher";
+            }
+
+            @Override
+            public void setup(Scene scene, Pane root, int widgets) {
+                final FlowPane pane = new FlowPane();
+                for (int i = 0; i < widgets; i++) {
+                    final AnimatedSwitcher switcher = new AnimatedSwitcher(AnimationPair.fade());
+                    switcher.setChild(new Rectangle(10, 10));
+                    switchers.add(switcher);
+                    pane.getChildren().add(switcher);
+                }
+                root.getChildren().add(pane);
+            }
+
+            @Override
+            public void update(int pulse) {
+                if (pulse % PERIOD != 0) {
+                    return;
+                }
+                for (AnimatedSwitcher switcher : switchers) {
+                    switcher.setChild(new Rectangle(10, 10));
+                }
+            }
+        };
+    }
+
+    /**
+     * @return an {@link AnimatedVBox} with N children, which alternately gains a child on top and loses the last one
+     */
+    public static Scenario vbox() {
+        return new Scenario() {
+            private AnimatedVBox vbox;
+
+            @Override
+            public String getName() {
+                return "AnimatedVBox";
+            }
+
+            @Override
+            public void setup(Scene scene, Pane root, int widgets) {
+                vbox = new AnimatedVBox(AnimationPair.fade());
+                for (int i = 0; i < widgets; i++) {
+                    vbox.getChildren().add(item());
+                }
+                root.getChildren().add(vbox);
+            }
+
+            @Override
+            public void update(int pulse) {
+                if (pulse % PERIOD != 0) {
+                    return;
+                }
+                if ((pulse / PERIOD) % 2 == 0) {
+                    vbox.getChildren().add(0, item());
+                } else if (!vbox.getChildren().isEmpty()) {
+                    vbox.getChildren().remove(vbox.getChildren().size() - 1);
+                }
+            }
+        };
+    }
+
+    /**
+     * @return a scene with N styled regions, whose theme is switched by an {@link AnimatedThemeSwitcher}
+     */
+    public static Scenario themeSwitcher() {
+        return new Scenario() {
+            private Scene scene;
+            private String light;
+            private String dark;
+
+            @Override
+            public String getName() {
+                return "AnimatedThemeSwitcher";
+            }
+
+            @Override
+            public void setup(Scene scene, Pane root, int widgets) {
+                this.scene = scene;
+                this.light = stylesheet(".root { -fx-background-color: white; } .item { -fx-background-color: black; }");
+                this.dark = stylesheet(".root { -fx-background-color: black; } .item { -fx-background-color: white; }");
+
+                final FlowPane pane = new FlowPane();
+                for (int i = 0; i < widgets; i++) {
+                    pane.getChildren().add(item());
+                }
+                root.getChildren().add(pane);
+
+                scene.getStylesheets().add(light);
+                new AnimatedThemeSwitcher(scene).init();
+            }
+
+            @Override
+            public void update(int pulse) {
+                if (pulse % PERIOD == 0) {
+                    scene.getStylesheets().setAll((pulse / PERIOD) % 2 == 0 ? dark : light);
+                }
+            }
+        };
+    }
+
+    /**
+     * @return a new styleable node with a fixed size
+     */
+    private static Region item() {
+        final Region region = new Region();
+        region.getStyleClass().add("item");
+        region.setPrefSize(40, 10);
+        return region;
+    }
+
+    /**
+     * @param css content of the stylesheet
+     * @return URL of a temporary stylesheet file with the given content
+     */
+    private static String stylesheet(String css) {
+        try {
+            final Path file = Files.createTempFile("animated-benchmark", ".css");
+            file.toFile().deleteOnExit();
+            Files.write(file, css.getBytes());
+            return file.toUri().toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
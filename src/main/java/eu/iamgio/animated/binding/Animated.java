@@ -64,11 +64,14 @@ public class Animated extends SingleChildParent implements CustomizableAnimation
     private void registerPropertyListeners() {
         properties.addListener((ListChangeListener<? super AnimationProperty<?>>) change -> {
             while (change.next()) {
+                change.getRemoved().forEach(property -> {
+                    property.pausedProperty().unbindBidirectional(this.paused);
+                    property.detachFrom(this);
+                });
                 change.getAddedSubList().forEach(property -> {
                     property.attachTo(this);
                     property.pausedProperty().bindBidirectional(this.paused);
                 });
-                // TODO unbind on remove
             }
         });
     }
@@ -1,6 +1,8 @@
 package eu.iamgio.animated.binding;
 
+import eu.iamgio.animated.binding.property.animation.AnimationScheduler;
 import eu.iamgio.animated.common.Curve;
+import javafx.animation.Interpolator;
 import javafx.util.Duration;
 
 /**
@@ -10,6 +12,11 @@ public class AnimationSettings {
 
     private Duration duration = Duration.seconds(1);
     private Curve curve = Curve.LINEAR;
+    private int curveResolution = 0;
+    private Boolean scheduled = null;
+    private InterruptionPolicy interruptionPolicy = InterruptionPolicy.RESTART;
+    private boolean coalescing = false;
+    private HiddenTargetPolicy hiddenTargetPolicy = HiddenTargetPolicy.ANIMATE;
 
     /**
      * @return duration of the animation
@@ -61,4 +68,145 @@ public class AnimationSettings {
         this.curve = curve;
         return this;
     }
+
+    /**
+     * @return amount of samples the curve is precomputed into, or 0 if the curve is evaluated analytically
+     */
+    public int getCurveResolution() {
+        return curveResolution;
+    }
+
+    /**
+     * Note: using the fluent setter {@link #withCurveResolution(int)} is suggested.
+     *       This method is kept only for FXML compatibility.
+     * @param curveResolution amount of samples the curve is precomputed into, or 0 to evaluate it analytically
+     */
+    public void setCurveResolution(int curveResolution) {
+        this.curveResolution = curveResolution;
+    }
+
+    /**
+     * Precomputes the curve into a lookup table, which is cheaper to evaluate for curves
+     * that rely on transcendental functions at the cost of a small accuracy loss.
+     * @param curveResolution amount of samples the curve is precomputed into, or 0 to evaluate it analytically
+     * @return this for concatenation
+     * @see Curve#sampled(int)
+     */
+    public AnimationSettings withCurveResolution(int curveResolution) {
+        this.curveResolution = curveResolution;
+        return this;
+    }
+
+    /**
+     * @return the interpolator of the curve, sampled if {@link #getCurveResolution()} is positive
+     */
+    public Interpolator getInterpolator() {
+        return curveResolution > 0 ? curve.sampled(curveResolution).toInterpolator() : curve.toInterpolator();
+    }
+
+    /**
+     * @return whether the animation is played by the shared {@link AnimationScheduler} rather than by its own timeline.
+     *         If not explicitly set, {@link AnimationScheduler#isEnabledByDefault()} is used
+     */
+    public boolean isScheduled() {
+        return scheduled != null ? scheduled : AnimationScheduler.isEnabledByDefault();
+    }
+
+    /**
+     * Note: using the fluent setter {@link #withScheduled(boolean)} is suggested.
+     *       This method is kept only for FXML compatibility.
+     * @param scheduled whether the animation should be played by the shared {@link AnimationScheduler}
+     */
+    public void setScheduled(boolean scheduled) {
+        this.scheduled = scheduled;
+    }
+
+    /**
+     * @param scheduled whether the animation should be played by the shared {@link AnimationScheduler}
+     *                  rather than by its own timeline
+     * @return this for concatenation
+     */
+    public AnimationSettings withScheduled(boolean scheduled) {
+        this.scheduled = scheduled;
+        return this;
+    }
+
+    /**
+     * @return what happens when the wrapped value changes while an animation is still running
+     */
+    public InterruptionPolicy getInterruptionPolicy() {
+        return interruptionPolicy;
+    }
+
+    /**
+     * Note: using the fluent setter {@link #withInterruptionPolicy(InterruptionPolicy)} is suggested.
+     *       This method is kept only for FXML compatibility.
+     * @param interruptionPolicy what happens when the wrapped value changes while an animation is still running
+     */
+    public void setInterruptionPolicy(InterruptionPolicy interruptionPolicy) {
+        this.interruptionPolicy = interruptionPolicy;
+    }
+
+    /**
+     * @param interruptionPolicy what happens when the wrapped value changes while an animation is still running
+     * @return this for concatenation
+     */
+    public AnimationSettings withInterruptionPolicy(InterruptionPolicy interruptionPolicy) {
+        this.interruptionPolicy = interruptionPolicy;
+        return this;
+    }
+
+    /**
+     * @return whether multiple changes of the wrapped value within the same pulse result in a single animation
+     *         towards the last value, started on the next pulse
+     */
+    public boolean isCoalescing() {
+        return coalescing;
+    }
+
+    /**
+     * Note: using the fluent setter {@link #withCoalescing(boolean)} is suggested.
+     *       This method is kept only for FXML compatibility.
+     * @param coalescing whether multiple changes within the same pulse should result in a single animation
+     */
+    public void setCoalescing(boolean coalescing) {
+        this.coalescing = coalescing;
+    }
+
+    /**
+     * @param coalescing whether multiple changes of the wrapped value within the same pulse should result in
+     *                   a single animation towards the last value, started on the next pulse
+     * @return this for concatenation
+     * @see AnimationScheduler#requestFlush(AnimationScheduler.Target)
+     */
+    public AnimationSettings withCoalescing(boolean coalescing) {
+        this.coalescing = coalescing;
+        return this;
+    }
+
+    /**
+     * @return what happens when the wrapped value changes while the target node is not rendered
+     */
+    public HiddenTargetPolicy getHiddenTargetPolicy() {
+        return hiddenTargetPolicy;
+    }
+
+    /**
+     * Note: using the fluent setter {@link #withHiddenTargetPolicy(HiddenTargetPolicy)} is suggested.
+     *       This method is kept only for FXML compatibility.
+     * @param hiddenTargetPolicy what happens when the wrapped value changes while the target node is not rendered
+     */
+    public void setHiddenTargetPolicy(HiddenTargetPolicy hiddenTargetPolicy) {
+        this.hiddenTargetPolicy = hiddenTargetPolicy;
+    }
+
+    /**
+     * @param hiddenTargetPolicy what happens when the wrapped value changes while the target node is not rendered.
+     *                           Whether the target node is rendered is tracked from the first change on
+     * @return this for concatenation
+     */
+    public AnimationSettings withHiddenTargetPolicy(HiddenTargetPolicy hiddenTargetPolicy) {
+        this.hiddenTargetPolicy = hiddenTargetPolicy;
+        return this;
+    }
 }
@@ -0,0 +1,30 @@
+package eu.iamgio.animated.binding;
+
+/**
+ * Defines what happens when the wrapped value changes while the target node is not actually rendered:
+ * either it or one of its ancestors is invisible, it is part of the content of a collapsed
+ * {@link javafx.scene.control.TitledPane} or of an unselected {@link javafx.scene.control.Tab},
+ * or it is scrolled out of the viewport of a {@link javafx.scene.control.ScrollPane}.
+ * Policies other than {@link #ANIMATE} also bring a running animation to its end as soon as the target node is hidden.
+ * Only applies to animation properties registered with a target node, and does not affect springs.
+ * @author Giorgio Garofalo
+ * @see AnimationSettings#withHiddenTargetPolicy(HiddenTargetPolicy)
+ */
+public enum HiddenTargetPolicy {
+
+    /**
+     * The change is animated regardless of whether the target node is rendered.
+     */
+    ANIMATE,
+
+    /**
+     * The new value is applied at once, without animating it.
+     */
+    SKIP,
+
+    /**
+     * The wrapped property keeps its current value while the target node is hidden,
+     * and the animation towards the last new value is played as soon as it is rendered again.
+     */
+    DEFER
+}
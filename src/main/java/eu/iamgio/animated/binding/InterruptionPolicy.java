@@ -0,0 +1,33 @@
+package eu.iamgio.animated.binding;
+
+import eu.iamgio.animated.binding.property.animation.AnimationScheduler;
+
+/**
+ * Defines what happens when the wrapped value changes while an animation is still running.
+ * An animation that is retargeted in place is not interrupted: it fires no end and start events, but only its final end event.
+ * @author Giorgio Garofalo
+ * @see AnimationSettings#withInterruptionPolicy(InterruptionPolicy)
+ */
+public enum InterruptionPolicy {
+
+    /**
+     * The running animation is stopped and a new one is played from the current value,
+     * lasting the whole duration of the settings.
+     */
+    RESTART,
+
+    /**
+     * The running animation is retargeted in place: it continues from the current value
+     * towards the new value, within the time the running animation had left.
+     * Retargeted animations are played by the {@link AnimationScheduler}.
+     */
+    RETARGET_KEEP_REMAINING_TIME,
+
+    /**
+     * The running animation is retargeted in place: it continues from the current value and velocity
+     * towards the new value, lasting the whole duration of the settings.
+     * Retargeted animations are played by the {@link AnimationScheduler}.
+     * Velocity is only defined for numeric properties: others are retargeted from the current value without it.
+     */
+    RETARGET_PRESERVE_VELOCITY
+}
@@ -22,11 +22,14 @@ import java.util.function.Function;
 public abstract class AnimationProperty<T> implements CustomizableAnimation<AnimationProperty<T>>, ListenableAnimation, Pausable {
 
     // The target property
-    private final PropertyWrapper<T> property;
+    private PropertyWrapper<T> property;
 
     // Whether the property should be animated
     private final BooleanProperty paused = new SimpleBooleanProperty(false);
 
+    // Whether the listener is weakly registered on the wrapped property
+    private boolean weakRegistration = false;
+
     // Animation settings
     private final ObjectProperty<AnimationSettings> settings;
 
@@ -95,12 +98,71 @@ public abstract class AnimationProperty<T> implements CustomizableAnimation<Anim
         register(null);
     }
 
+    /**
+     * Unregisters the listener, if registered, and stops the running animation, if any, without completing it.
+     * The property can be registered again afterwards.
+     * <p>
+     * This does nothing by default: subclasses that register listeners should override it.
+     */
+    public void unregister() {
+    }
+
+    /**
+     * Unregisters this property and releases the resources it holds, including its event handlers.
+     * This property should not be used afterwards: if it is attached to an {@link Animated} node,
+     * it should be removed from its target properties first.
+     */
+    public void dispose() {
+        this.unregister();
+        setOnAnimationStarted(null);
+        setOnAnimationEnded(null);
+    }
+
+    /**
+     * @return whether the listener is weakly registered on the wrapped property
+     */
+    public boolean isWeakRegistration() {
+        return this.weakRegistration;
+    }
+
+    /**
+     * Note: using the fluent setter {@link #withWeakRegistration(boolean)} is suggested.
+     *       This method is kept only for FXML compatibility.
+     * @param weakRegistration whether the listener should be weakly registered on the wrapped property
+     */
+    public void setWeakRegistration(boolean weakRegistration) {
+        this.weakRegistration = weakRegistration;
+    }
+
+    /**
+     * Sets whether the listener should be weakly registered on the wrapped property, which takes effect on the next registration.
+     * By default, the wrapped property keeps this animation property alive as long as it is reachable.
+     * A weakly registered animation property instead does not outlive the references to it (e.g. from an {@link Animated} node),
+     * besides the one of its running animation, if any: once it is collected, changes are no longer animated
+     * and its listener is removed from the wrapped property on the next change.
+     * @param weakRegistration whether the listener should be weakly registered on the wrapped property
+     * @return this for concatenation
+     */
+    public AnimationProperty<T> withWeakRegistration(boolean weakRegistration) {
+        setWeakRegistration(weakRegistration);
+        return this;
+    }
+
     /**
      * Attaches this property to an {@link Animated} node.
      * @param animated animated node to link this property to
      */
     public abstract void attachTo(Animated animated);
 
+    /**
+     * Detaches this property from an {@link Animated} node it was attached to:
+     * changes to the wrapped property are no longer animated.
+     * @param animated animated node to unlink this property from
+     */
+    public void detachFrom(Animated animated) {
+        this.unregister();
+    }
+
     /**
      * Adds a binding to a target property: when the value of the wrapped property changes,
      * the target property is updated too, based on a mapper function.
@@ -134,6 +196,15 @@ public abstract class AnimationProperty<T> implements CustomizableAnimation<Anim
         return this.property;
     }
 
+    /**
+     * Changes the target property, so that the same instance can be reused for another property.
+     * Any listener must have been unregistered from the previous target property first.
+     * @param property new target property
+     */
+    void setProperty(PropertyWrapper<T> property) {
+        this.property = property;
+    }
+
     /**
      * Fluent setter for {@link ListenableAnimation#setOnAnimationStarted(EventHandler)}
      * @param handler the action to run when an animation begins
@@ -189,6 +260,18 @@ public abstract class AnimationProperty<T> implements CustomizableAnimation<Anim
         to.onAnimationEndedProperty().bindBidirectional(onAnimationEndedProperty());
 
         to.withSettings(this.getSettings());
+        to.setWeakRegistration(this.isWeakRegistration());
+    }
+
+    /**
+     * Removes the bindings set up by {@link #copyAttributesTo(AnimationProperty)}.
+     * @param to property the attributes were copied to
+     */
+    void unbindAttributesFrom(AnimationProperty<?> to) {
+        to.pausedProperty().unbindBidirectional(pausedProperty());
+
+        to.onAnimationStartedProperty().unbindBidirectional(onAnimationStartedProperty());
+        to.onAnimationEndedProperty().unbindBidirectional(onAnimationEndedProperty());
     }
 
     /**
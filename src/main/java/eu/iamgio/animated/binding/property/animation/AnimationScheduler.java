@@ -0,0 +1,506 @@
+package eu.iamgio.animated.binding.property.animation;
+
+import eu.iamgio.animated.binding.AnimationSettings;
+import eu.iamgio.animated.binding.InterruptionPolicy;
+import eu.iamgio.animated.common.Curve;
+import javafx.animation.AnimationTimer;
+import javafx.animation.Interpolator;
+import javafx.util.Duration;
+
+import java.util.Arrays;
+
+/**
+ * A shared, pulse-driven engine that plays property animations from a single {@link AnimationTimer},
+ * as an alternative to one {@link javafx.animation.Timeline} per animated property.
+ * Running animations are stored in parallel arrays and are all advanced in one loop per pulse.
+ * Numeric animations have a dedicated lane that works on primitive arrays only (see {@link #play(Target, double, double, Duration, Curve, int)}).
+ * The timer is only registered on the pulse while at least one animation is running.
+ * Physics-based animations are driven as {@link Simulation}s, which are stepped on every pulse until they come to rest.
+ * The scheduler also collects targets that requested a flush, so that they can coalesce
+ * several changes into a single animation at the beginning of the next pulse (see {@link #requestFlush(Target)}).
+ * <p>
+ * The scheduler is opt-in: it is used by properties whose settings are scheduled (see {@link AnimationSettings#isScheduled()}),
+ * either explicitly or via {@link #setEnabledByDefault(boolean)}.
+ * Like any other JavaFX animation, it must only be accessed from the JavaFX Application Thread.
+ * @author Giorgio Garofalo
+ */
+public final class AnimationScheduler {
+
+    // Initial capacity of the arrays, which grow as needed
+    private static final int INITIAL_CAPACITY = 16;
+
+    // Marks an animation that will start on the next pulse
+    private static final long UNSTARTED = Long.MIN_VALUE;
+
+    private static final AnimationScheduler INSTANCE = new AnimationScheduler();
+
+    // Whether settings that do not explicitly opt in or out use the scheduler
+    private static boolean enabledByDefault = false;
+
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            tick(now);
+        }
+    };
+
+    // Running animations, stored as parallel arrays of size 'size'
+    private Target[] targets = new Target[INITIAL_CAPACITY];
+    private Object[] from = new Object[INITIAL_CAPACITY];
+    private Object[] to = new Object[INITIAL_CAPACITY];
+    private Interpolator[] interpolators = new Interpolator[INITIAL_CAPACITY];
+    private long[] startNanos = new long[INITIAL_CAPACITY];
+    private long[] durationNanos = new long[INITIAL_CAPACITY];
+    private int size;
+
+    // Running numeric animations
+    private final DoubleAnimationBatch batch = new DoubleAnimationBatch();
+
+    // Awake simulations, stored in an array of size 'simulationCount'
+    private Simulation[] simulations = new Simulation[INITIAL_CAPACITY];
+    private int simulationCount;
+
+    // Targets to flush on the next pulse
+    private Target[] pending = new Target[INITIAL_CAPACITY];
+    private int pendingSize;
+
+    // Whether the timer is currently registered on the pulse
+    private boolean timerRunning;
+
+    // Timestamp of the last pulse
+    private long lastPulse = UNSTARTED;
+
+    private AnimationScheduler() {
+    }
+
+    /**
+     * @return the shared scheduler instance
+     */
+    public static AnimationScheduler getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return whether animation settings that do not explicitly opt in or out use the scheduler
+     */
+    public static boolean isEnabledByDefault() {
+        return enabledByDefault;
+    }
+
+    /**
+     * Globally enables or disables the scheduler for animation settings that do not explicitly opt in or out.
+     * @param enabled whether the scheduler should be used by default
+     * @see AnimationSettings#withScheduled(boolean)
+     */
+    public static void setEnabledByDefault(boolean enabled) {
+        enabledByDefault = enabled;
+    }
+
+    /**
+     * Plays an animation, replacing the one currently running on the same target, if any.
+     * @param target receiver of the animation frames
+     * @param from start value
+     * @param to end value
+     * @param duration duration of the animation
+     * @param interpolator interpolator that computes intermediate values
+     */
+    public void play(Target target, Object from, Object to, Duration duration, Interpolator interpolator) {
+        batch.stop(target);
+
+        int slot = target.slot;
+        if (slot < 0) {
+            ensureCapacity(size + 1);
+            slot = size++;
+            targets[slot] = target;
+            target.slot = slot;
+        }
+
+        this.from[slot] = from;
+        this.to[slot] = to;
+        this.interpolators[slot] = interpolator;
+        this.startNanos[slot] = UNSTARTED;
+        this.durationNanos[slot] = toNanos(duration);
+
+        startTimer();
+    }
+
+    /**
+     * Plays a numeric animation, replacing the one currently running on the same target, if any.
+     * Frames are delivered via {@link Target#update(double)}, without boxing.
+     * @param target receiver of the animation frames
+     * @param from start value
+     * @param to end value
+     * @param duration duration of the animation
+     * @param curve curve of the animation
+     * @param curveResolution amount of samples the curve is precomputed into, or 0 to evaluate it analytically
+     */
+    public void play(Target target, double from, double to, Duration duration, Curve curve, int curveResolution) {
+        if (target.slot >= 0) {
+            remove(target.slot);
+        }
+
+        batch.play(target, from, to, toNanos(duration), curve, curveResolution);
+        startTimer();
+    }
+
+    /**
+     * Retargets the animation running on the given target in place, so that it continues
+     * from its current value towards a new end value, without restarting.
+     * If no animation is running on the target, a new one is played.
+     * @param target receiver of the animation frames
+     * @param from current value
+     * @param to new end value
+     * @param duration duration of the animation from now on, unless the policy keeps the remaining time
+     * @param interpolator interpolator that computes intermediate values
+     * @param policy retargeting policy. Velocity cannot be preserved for non-numeric values
+     */
+    public void retarget(Target target, Object from, Object to, Duration duration, Interpolator interpolator, InterruptionPolicy policy) {
+        final int slot = target.slot;
+        if (slot < 0) {
+            play(target, from, to, duration, interpolator);
+            return;
+        }
+
+        this.from[slot] = from;
+        this.to[slot] = to;
+        this.interpolators[slot] = interpolator;
+
+        if (policy == InterruptionPolicy.RETARGET_KEEP_REMAINING_TIME) {
+            if (startNanos[slot] != UNSTARTED) {
+                durationNanos[slot] = Math.max(0, durationNanos[slot] - (lastPulse - startNanos[slot]));
+                startNanos[slot] = lastPulse;
+            }
+        } else {
+            durationNanos[slot] = toNanos(duration);
+            if (startNanos[slot] != UNSTARTED) {
+                startNanos[slot] = lastPulse;
+            }
+        }
+    }
+
+    /**
+     * Retargets the numeric animation running on the given target in place, so that it continues
+     * from its current value (and velocity, if required by the policy) towards a new end value, without restarting.
+     * If no numeric animation is running on the target, a new one is played.
+     * @param target receiver of the animation frames
+     * @param from current value
+     * @param to new end value
+     * @param duration duration of the animation from now on, unless the policy keeps the remaining time
+     * @param curve curve of the animation
+     * @param curveResolution amount of samples the curve is precomputed into, or 0 to evaluate it analytically
+     * @param policy retargeting policy
+     */
+    public void retarget(Target target, double from, double to, Duration duration, Curve curve, int curveResolution,
+                         InterruptionPolicy policy) {
+        if (target.slot >= 0) {
+            remove(target.slot);
+        }
+
+        batch.retarget(target, from, to, toNanos(duration), curve, curveResolution, policy);
+        startTimer();
+    }
+
+    /**
+     * Registers a simulation on the pulse, if it is not already awake.
+     * It is stepped on every pulse until {@link Simulation#step(double)} reports it came to rest.
+     * @param simulation simulation to wake
+     */
+    public void wake(Simulation simulation) {
+        if (simulation.slot >= 0) {
+            return;
+        }
+
+        if (simulationCount == simulations.length) {
+            simulations = Arrays.copyOf(simulations, simulations.length * 2);
+        }
+        simulations[simulationCount] = simulation;
+        simulation.slot = simulationCount++;
+        simulation.lastNanos = UNSTARTED;
+
+        startTimer();
+    }
+
+    /**
+     * Removes a simulation from the pulse, if it is awake, without notifying it.
+     * @param simulation simulation to put to sleep
+     */
+    public void sleep(Simulation simulation) {
+        if (simulation.slot >= 0) {
+            removeSimulation(simulation.slot);
+        }
+    }
+
+    /**
+     * @param simulation simulation to check
+     * @return whether the given simulation is currently stepped on every pulse
+     */
+    public boolean isAwake(Simulation simulation) {
+        return simulation.slot >= 0;
+    }
+
+    /**
+     * Schedules a call to {@link Target#flush()} at the beginning of the next pulse, before animations are advanced.
+     * Multiple requests from the same target within a pulse result in a single call.
+     * @param target target to flush
+     */
+    public void requestFlush(Target target) {
+        if (target.flushRequested) {
+            return;
+        }
+
+        if (pendingSize == pending.length) {
+            pending = Arrays.copyOf(pending, pending.length * 2);
+        }
+        pending[pendingSize++] = target;
+        target.flushRequested = true;
+
+        startTimer();
+    }
+
+    /**
+     * Stops the animation running on the given target, if any, without notifying it.
+     * @param target target to stop
+     */
+    public void stop(Target target) {
+        if (target.slot >= 0) {
+            remove(target.slot);
+        }
+        batch.stop(target);
+    }
+
+    /**
+     * @param target target to check
+     * @return whether an animation is currently running on the given target
+     */
+    public boolean isRunning(Target target) {
+        return target.slot >= 0 || target.batchSlot >= 0;
+    }
+
+    /**
+     * @param target target to check
+     * @param numeric whether the new value is numeric
+     * @return whether retargeting the given target continues its running animation in place, rather than playing a new one
+     */
+    public boolean canRetarget(Target target, boolean numeric) {
+        return numeric ? target.batchSlot >= 0 : target.slot >= 0;
+    }
+
+    /**
+     * @return amount of animations currently running
+     */
+    public int getActiveCount() {
+        return size + batch.size() + simulationCount;
+    }
+
+    /**
+     * Advances every running animation.
+     * @param now timestamp of the current pulse, in nanoseconds
+     */
+    private void tick(long now) {
+        lastPulse = now;
+
+        // Coalesced changes start or retarget their animations before they are advanced
+        for (int i = 0; i < pendingSize; i++) {
+            final Target target = pending[i];
+            pending[i] = null;
+            target.flushRequested = false;
+            target.flush();
+        }
+        pendingSize = 0;
+
+        batch.tick(now);
+
+        int i = 0;
+        while (i < size) {
+            if (startNanos[i] == UNSTARTED) {
+                startNanos[i] = now;
+            }
+
+            final Target target = targets[i];
+            final long elapsed = now - startNanos[i];
+            final boolean done = elapsed >= durationNanos[i];
+            final double fraction = done ? 1 : (double) elapsed / durationNanos[i];
+            final Object value = interpolators[i].interpolate(from[i], to[i], fraction);
+
+            if (done) {
+                // Removed before the callbacks so that they can safely play a new animation on the same target
+                remove(i);
+                target.update(value);
+                target.finished();
+            } else {
+                target.update(value);
+                // If the callback removed this animation, another one took its slot
+                if (target.slot == i) {
+                    i++;
+                }
+            }
+        }
+
+        stepSimulations(now);
+
+        if (getActiveCount() == 0 && pendingSize == 0 && timerRunning) {
+            timerRunning = false;
+            timer.stop();
+        }
+    }
+
+    /**
+     * Steps every awake simulation, and removes those that came to rest.
+     * @param now timestamp of the current pulse, in nanoseconds
+     */
+    private void stepSimulations(long now) {
+        int i = 0;
+        while (i < simulationCount) {
+            final Simulation simulation = simulations[i];
+            final long last = simulation.lastNanos;
+            simulation.lastNanos = now;
+
+            final boolean awake = simulation.step(last == UNSTARTED ? 0 : (now - last) / 1e9);
+
+            // If the callback removed this simulation, another one took its slot
+            if (simulation.slot != i) {
+                continue;
+            }
+
+            if (awake) {
+                i++;
+            } else {
+                removeSimulation(i);
+                simulation.asleep();
+            }
+        }
+    }
+
+    /**
+     * Removes a simulation by moving the last one into its slot.
+     * @param slot index of the simulation to remove
+     */
+    private void removeSimulation(int slot) {
+        final int last = --simulationCount;
+        simulations[slot].slot = -1;
+
+        if (slot != last) {
+            simulations[slot] = simulations[last];
+            simulations[slot].slot = slot;
+        }
+        simulations[last] = null;
+    }
+
+    /**
+     * Removes an animation by moving the last one into its slot.
+     * @param slot index of the animation to remove
+     */
+    private void remove(int slot) {
+        final int last = --size;
+        targets[slot].slot = -1;
+
+        if (slot != last) {
+            targets[slot] = targets[last];
+            from[slot] = from[last];
+            to[slot] = to[last];
+            interpolators[slot] = interpolators[last];
+            startNanos[slot] = startNanos[last];
+            durationNanos[slot] = durationNanos[last];
+            targets[slot].slot = slot;
+        }
+
+        // Release references
+        targets[last] = null;
+        from[last] = null;
+        to[last] = null;
+        interpolators[last] = null;
+    }
+
+    private void startTimer() {
+        if (!timerRunning) {
+            timerRunning = true;
+            timer.start();
+        }
+    }
+
+    private static long toNanos(Duration duration) {
+        return (long) (duration.toMillis() * 1_000_000);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= targets.length) {
+            return;
+        }
+
+        final int length = Math.max(capacity, targets.length * 2);
+        targets = Arrays.copyOf(targets, length);
+        from = Arrays.copyOf(from, length);
+        to = Arrays.copyOf(to, length);
+        interpolators = Arrays.copyOf(interpolators, length);
+        startNanos = Arrays.copyOf(startNanos, length);
+        durationNanos = Arrays.copyOf(durationNanos, length);
+    }
+
+    /**
+     * Receiver of the frames of a scheduled animation.
+     * An instance can be the target of only one animation at a time.
+     */
+    public static abstract class Target {
+
+        // Index of the running animation within the scheduler, or -1 if not running
+        int slot = -1;
+
+        // Index of the running numeric animation within the batch, or -1 if not running
+        int batchSlot = -1;
+
+        // Whether this target is waiting to be flushed
+        boolean flushRequested = false;
+
+        /**
+         * Called on every pulse while the animation is running.
+         * @param value current animated value
+         */
+        protected abstract void update(Object value);
+
+        /**
+         * Called on every pulse while a numeric animation is running.
+         * Boxes the value and delegates to {@link #update(Object)} unless overridden.
+         * @param value current animated value
+         */
+        protected void update(double value) {
+            update((Object) value);
+        }
+
+        /**
+         * Called after the last frame, when the animation completes as expected.
+         */
+        protected abstract void finished();
+
+        /**
+         * Called at the beginning of the pulse that follows a {@link #requestFlush(Target)} call.
+         */
+        protected void flush() {
+        }
+    }
+
+    /**
+     * A physics-based animation that has no fixed duration,
+     * and is stepped on every pulse while it is awake.
+     */
+    public static abstract class Simulation {
+
+        // Index of the simulation within the scheduler, or -1 if asleep
+        int slot = -1;
+
+        // Timestamp of the last step
+        long lastNanos = UNSTARTED;
+
+        /**
+         * Advances the simulation.
+         * @param seconds time elapsed since the last step, in seconds. It is 0 on the first step after waking up
+         * @return whether the simulation is still in motion. If <tt>false</tt>, it is removed from the pulse
+         */
+        protected abstract boolean step(double seconds);
+
+        /**
+         * Called after the simulation is removed from the pulse because it came to rest.
+         */
+        protected void asleep() {
+        }
+    }
+}
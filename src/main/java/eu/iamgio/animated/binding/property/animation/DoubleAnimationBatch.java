@@ -0,0 +1,287 @@
+package eu.iamgio.animated.binding.property.animation;
+
+import eu.iamgio.animated.binding.InterruptionPolicy;
+import eu.iamgio.animated.common.Curve;
+import eu.iamgio.animated.common.LutCurve;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Struct-of-arrays storage of the numeric animations played by the {@link AnimationScheduler}.
+ * Each pulse first computes every value in a tight loop over primitive arrays,
+ * then writes the results back to the targets.
+ * <p>
+ * A running animation can be retargeted in place: its value follows
+ * <tt>from + (to - from) * curve(s) + offset * s * (1 - s)^2</tt>, where <tt>s</tt> is the linear progress
+ * and the Hermite term carries the velocity the animation had when it was retargeted.
+ * @author Giorgio Garofalo
+ */
+final class DoubleAnimationBatch {
+
+    // Initial capacity of the arrays, which grow as needed
+    private static final int INITIAL_CAPACITY = 64;
+
+    // Marks an animation that will start on the next pulse
+    private static final long UNSTARTED = Long.MIN_VALUE;
+
+    // Progress step used to estimate the slope of a curve
+    private static final double SLOPE_EPSILON = 1e-4;
+
+    // Curves used so far, indexed by curve id. Sampled curves are compared by curve and resolution.
+    // Once it holds more than the built-in curves, the registry is reset as soon as no animation is running,
+    // so that it does not grow with every resolution ever used
+    private final Map<Object, Integer> curveIds = new HashMap<>();
+    private DoubleUnaryOperator[] curves = new DoubleUnaryOperator[Curve.values().length];
+
+    // Running animations, stored as parallel arrays of size 'size'
+    private AnimationScheduler.Target[] targets = new AnimationScheduler.Target[INITIAL_CAPACITY];
+    private double[] from = new double[INITIAL_CAPACITY];
+    private double[] to = new double[INITIAL_CAPACITY];
+    private double[] values = new double[INITIAL_CAPACITY];
+    private long[] startNanos = new long[INITIAL_CAPACITY];
+    private long[] durationNanos = new long[INITIAL_CAPACITY];
+    private int[] curveIndexes = new int[INITIAL_CAPACITY];
+    private double[] offsets = new double[INITIAL_CAPACITY];
+    private int size;
+
+    // Timestamp of the last pulse
+    private long lastPulse = UNSTARTED;
+
+    /**
+     * Plays an animation, replacing the one currently running on the same target, if any.
+     * @param target receiver of the animation frames
+     * @param from start value
+     * @param to end value
+     * @param durationNanos duration of the animation, in nanoseconds
+     * @param curve curve of the animation
+     * @param curveResolution amount of samples the curve is precomputed into, or 0 to evaluate it analytically
+     */
+    void play(AnimationScheduler.Target target, double from, double to, long durationNanos, Curve curve, int curveResolution) {
+        int slot = target.batchSlot;
+        if (slot < 0) {
+            ensureCapacity(size + 1);
+            slot = size++;
+            targets[slot] = target;
+            target.batchSlot = slot;
+        }
+
+        this.from[slot] = from;
+        this.to[slot] = to;
+        this.startNanos[slot] = UNSTARTED;
+        this.durationNanos[slot] = durationNanos;
+        this.curveIndexes[slot] = curveId(curve, curveResolution);
+        this.offsets[slot] = 0;
+    }
+
+    /**
+     * Retargets the animation running on the given target in place, so that it continues from its current
+     * value towards a new end value. If no animation is running, a new one is played.
+     * @param target receiver of the animation frames
+     * @param from current value
+     * @param to new end value
+     * @param durationNanos duration of the animation from now on, in nanoseconds,
+     *                      unless the policy keeps the remaining time of the running animation
+     * @param curve curve of the animation
+     * @param curveResolution amount of samples the curve is precomputed into, or 0 to evaluate it analytically
+     * @param policy retargeting policy
+     */
+    void retarget(AnimationScheduler.Target target, double from, double to, long durationNanos, Curve curve, int curveResolution,
+                  InterruptionPolicy policy) {
+        final int slot = target.batchSlot;
+        if (slot < 0) {
+            play(target, from, to, durationNanos, curve, curveResolution);
+            return;
+        }
+
+        final boolean preserveVelocity = policy == InterruptionPolicy.RETARGET_PRESERVE_VELOCITY;
+        // Velocity, in units per nanosecond, at the last pulse
+        final double velocity = preserveVelocity ? velocityAt(slot) : 0;
+        final int curveIndex = curveId(curve, curveResolution);
+
+        if (policy == InterruptionPolicy.RETARGET_KEEP_REMAINING_TIME) {
+            durationNanos = startNanos[slot] == UNSTARTED
+                    ? this.durationNanos[slot]
+                    : Math.max(0, this.durationNanos[slot] - (lastPulse - startNanos[slot]));
+        }
+
+        this.from[slot] = from;
+        this.to[slot] = to;
+        this.durationNanos[slot] = durationNanos;
+        this.curveIndexes[slot] = curveIndex;
+        // The current value was produced by the last pulse, which becomes the new start
+        if (startNanos[slot] != UNSTARTED) {
+            this.startNanos[slot] = lastPulse;
+            this.values[slot] = from;
+        }
+        // Compensates the initial slope of the curve, so that the initial velocity matches the previous one
+        this.offsets[slot] = preserveVelocity ? velocity * durationNanos - (to - from) * slope(curves[curveIndex], 0) : 0;
+    }
+
+    /**
+     * Stops the animation running on the given target, if any, without notifying it.
+     * @param target target to stop
+     */
+    void stop(AnimationScheduler.Target target) {
+        if (target.batchSlot >= 0) {
+            remove(target.batchSlot);
+        }
+    }
+
+    /**
+     * @return amount of animations currently running
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Advances every running animation.
+     * @param now timestamp of the current pulse, in nanoseconds
+     */
+    void tick(long now) {
+        final int count = size;
+        lastPulse = now;
+
+        // Compute all values first, without touching the targets
+        for (int i = 0; i < count; i++) {
+            long start = startNanos[i];
+            if (start == UNSTARTED) {
+                startNanos[i] = start = now;
+            }
+
+            final long elapsed = now - start;
+            final long duration = durationNanos[i];
+
+            if (elapsed >= duration) {
+                values[i] = to[i];
+            } else {
+                final double progress = (double) elapsed / duration;
+                final double fraction = curves[curveIndexes[i]].applyAsDouble(progress);
+                final double remaining = 1 - progress;
+                values[i] = from[i] + (to[i] - from[i]) * fraction + offsets[i] * progress * remaining * remaining;
+            }
+        }
+
+        // Write the values back
+        int i = 0;
+        while (i < size) {
+            // Animations played by a callback during this pass start on the next pulse
+            if (startNanos[i] == UNSTARTED) {
+                i++;
+                continue;
+            }
+
+            final AnimationScheduler.Target target = targets[i];
+            final double value = values[i];
+
+            if (now - startNanos[i] >= durationNanos[i]) {
+                // Removed before the callbacks so that they can safely play a new animation on the same target
+                remove(i);
+                target.update(value);
+                target.finished();
+            } else {
+                target.update(value);
+                // If the callback removed this animation, another one took its slot
+                if (target.batchSlot == i) {
+                    i++;
+                }
+            }
+        }
+    }
+
+    /**
+     * @param slot index of a running animation
+     * @return the velocity of the animation at the last pulse, in units per nanosecond
+     */
+    private double velocityAt(int slot) {
+        final long duration = durationNanos[slot];
+        final double progress = startNanos[slot] == UNSTARTED ? 0 : (double) (lastPulse - startNanos[slot]) / duration;
+
+        if (duration <= 0 || progress >= 1) {
+            return 0;
+        }
+
+        final double slope = slope(curves[curveIndexes[slot]], progress);
+        return ((to[slot] - from[slot]) * slope + offsets[slot] * (1 - progress) * (1 - 3 * progress)) / duration;
+    }
+
+    /**
+     * @param curve curve to evaluate
+     * @param progress progress to estimate the slope at
+     * @return estimated derivative of the curve at the given progress
+     */
+    private static double slope(DoubleUnaryOperator curve, double progress) {
+        final double a = Math.max(0, progress - SLOPE_EPSILON);
+        final double b = Math.min(1, progress + SLOPE_EPSILON);
+        return (curve.applyAsDouble(b) - curve.applyAsDouble(a)) / (b - a);
+    }
+
+    /**
+     * @param curve analytic curve
+     * @param curveResolution amount of samples the curve is precomputed into, or 0 to evaluate it analytically
+     * @return the id of the given curve, registering it if it is used for the first time
+     */
+    private int curveId(Curve curve, int curveResolution) {
+        final Object key = curveResolution > 0 ? curve.sampled(curveResolution) : curve;
+        Integer id = curveIds.get(key);
+
+        if (id == null) {
+            id = curveIds.size();
+            if (id == curves.length) {
+                curves = Arrays.copyOf(curves, curves.length * 2);
+            }
+            curves[id] = key instanceof LutCurve ? ((LutCurve) key)::evaluate : curve.getCurveOperator();
+            curveIds.put(key, id);
+        }
+
+        return id;
+    }
+
+    /**
+     * Removes an animation by moving the last one into its slot.
+     * @param slot index of the animation to remove
+     */
+    private void remove(int slot) {
+        final int last = --size;
+        targets[slot].batchSlot = -1;
+
+        if (slot != last) {
+            targets[slot] = targets[last];
+            from[slot] = from[last];
+            to[slot] = to[last];
+            values[slot] = values[last];
+            startNanos[slot] = startNanos[last];
+            durationNanos[slot] = durationNanos[last];
+            curveIndexes[slot] = curveIndexes[last];
+            offsets[slot] = offsets[last];
+            targets[slot].batchSlot = slot;
+        }
+
+        // Release the reference
+        targets[last] = null;
+
+        if (size == 0 && curveIds.size() > Curve.values().length) {
+            curveIds.clear();
+            Arrays.fill(curves, null);
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= targets.length) {
+            return;
+        }
+
+        final int length = Math.max(capacity, targets.length * 2);
+        targets = Arrays.copyOf(targets, length);
+        from = Arrays.copyOf(from, length);
+        to = Arrays.copyOf(to, length);
+        values = Arrays.copyOf(values, length);
+        startNanos = Arrays.copyOf(startNanos, length);
+        durationNanos = Arrays.copyOf(durationNanos, length);
+        curveIndexes = Arrays.copyOf(curveIndexes, length);
+        offsets = Arrays.copyOf(offsets, length);
+    }
+}
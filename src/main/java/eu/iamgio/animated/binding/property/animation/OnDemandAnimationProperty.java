@@ -23,6 +23,18 @@ public class OnDemandAnimationProperty<N extends Node, T> extends AnimationPrope
     private final Function<N, PropertyWrapper<T>> propertyRetriever;
     private final ObjectProperty<N> targetNode;
 
+    // Animation property of the current target node, reused across target changes
+    private SimpleAnimationProperty<T> requested;
+
+    // Animated node this property is attached to, if any
+    private Animated attached;
+
+    // Listener to the child of the animated node this property is attached to, if any
+    private InvalidationListener childListener;
+
+    // Whether the target node was bound to the child of the animated node this property is attached to
+    private boolean boundToChild;
+
     /**
      * Instantiates a new on-demand animation property.
      * @param propertyRetriever function that generates a wrapped JavaFX property when applied to a node.
@@ -42,22 +54,41 @@ public class OnDemandAnimationProperty<N extends Node, T> extends AnimationPrope
     }
 
     /**
-     * @return a new {@link AnimationProperty} that wraps the output of the function applied to the current target node.
+     * @return the output of the function applied to the current target node
      * @throws IllegalStateException if the target node is not set
      */
-    private AnimationProperty<T> requestProperty() {
+    private PropertyWrapper<T> retrieveProperty() {
         if (targetNode.get() == null) {
             throw new IllegalStateException("The on-demand property was trying to access its status, " +
                     "but its target node is not set.");
         }
+        return propertyRetriever.apply(targetNode.get());
+    }
+
+    /**
+     * @return an {@link AnimationProperty} that wraps the output of the function applied to the current target node.
+     *         The same instance is retargeted every time this is called, after its previous registration is released
+     * @throws IllegalStateException if the target node is not set
+     */
+    private AnimationProperty<T> requestProperty() {
+        final PropertyWrapper<T> property = retrieveProperty();
 
-        final AnimationProperty<T> property = new SimpleAnimationProperty<>(propertyRetriever.apply(targetNode.get()));
-        super.copyAttributesTo(property);
-        return property;
+        if (requested == null) {
+            requested = new SimpleAnimationProperty<>(property);
+            super.copyAttributesTo(requested);
+        } else {
+            requested.unregister();
+            requested.setProperty(property);
+            // The settings may have changed since the previous target
+            super.unbindAttributesFrom(requested);
+            super.copyAttributesTo(requested);
+        }
+        return requested;
     }
 
     /**
      * {@inheritDoc}
+     * The property of the previous target node, if any, is unregistered.
      */
     @Override
     public void register(Node target) {
@@ -67,8 +98,19 @@ public class OnDemandAnimationProperty<N extends Node, T> extends AnimationPrope
 
     /**
      * {@inheritDoc}
-     * A hook is set up so that the child of the animated node generates
-     * and registers a new {@link SimpleAnimationProperty} when it changes.
+     * The property of the current target node is unregistered, if any.
+     */
+    @Override
+    public void unregister() {
+        if (requested != null) {
+            requested.unregister();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * A hook is set up so that, when the child of the animated node changes,
+     * the property of the previous child is unregistered and the one of the new child is registered.
      */
     @SuppressWarnings("unchecked")
     @Override
@@ -77,12 +119,19 @@ public class OnDemandAnimationProperty<N extends Node, T> extends AnimationPrope
             // Not a beautiful way to achieve this.
             // Casting is a workaround and should be handled better in the future.
             targetNode.bind((Property<N>) animated.childProperty());
+            boundToChild = true;
         }
 
         // Whenever the wrapped child of an animated node changes,
         // the animation property is evaluated and registered.
 
-        final InvalidationListener listener = o -> this.register(targetNode.get());
+        final InvalidationListener listener = childListener = o -> {
+            if (targetNode.get() != null) {
+                this.register(targetNode.get());
+            } else {
+                this.unregister();
+            }
+        };
 
         // Calling the listener if a child is already present.
         if (animated.getChild() != null) {
@@ -90,6 +139,44 @@ public class OnDemandAnimationProperty<N extends Node, T> extends AnimationPrope
         }
 
         animated.childProperty().addListener(listener);
+        this.attached = animated;
+    }
+
+    /**
+     * {@inheritDoc}
+     * The hook on the child of the animated node is removed.
+     */
+    @Override
+    public void detachFrom(Animated animated) {
+        if (childListener != null) {
+            animated.childProperty().removeListener(childListener);
+            childListener = null;
+            attached = null;
+        }
+        if (boundToChild) {
+            targetNode.unbind();
+            targetNode.set(null);
+            boundToChild = false;
+        }
+        this.unregister();
+    }
+
+    /**
+     * {@inheritDoc}
+     * The hook on the child of the animated node this property is attached to, if any, is removed,
+     * and the property of the current target node is released.
+     */
+    @Override
+    public void dispose() {
+        if (attached != null) {
+            this.detachFrom(attached);
+        }
+        if (requested != null) {
+            super.unbindAttributesFrom(requested);
+            requested.dispose();
+            requested = null;
+        }
+        super.dispose();
     }
 
     /**
@@ -97,7 +184,7 @@ public class OnDemandAnimationProperty<N extends Node, T> extends AnimationPrope
      */
     @Override
     public <V> AnimationProperty<T> addBinding(Property<V> targetProperty, Function<T, V> mapper) {
-        requestProperty().addBinding(targetProperty, mapper);
+        retrieveProperty().bindMapped(targetProperty, mapper);
         return this;
     }
 }
@@ -7,7 +7,7 @@ import javafx.scene.Node;
 
 import java.util.List;
 import java.util.function.Function;
-import java.util.stream.Stream;
+import java.util.stream.Collectors;
 
 /**
  * A group of multiple {@link OnDemandAnimationProperty}.
@@ -18,6 +18,9 @@ public class OnDemandAnimationPropertyGroup<N extends Node, T> extends OnDemandA
 
     private final List<Function<N, PropertyWrapper<T>>> propertyRetrievers;
 
+    // Sub-properties, generated once from the retrievers
+    private List<OnDemandAnimationProperty<N, T>> properties;
+
     /**
      * Instantiates a new group of on-demand animation property.
      * @param propertyRetrievers list of function that generate wrapped JavaFX properties when applied to a node.
@@ -27,11 +30,15 @@ public class OnDemandAnimationPropertyGroup<N extends Node, T> extends OnDemandA
         this.propertyRetrievers = propertyRetrievers;
     }
 
-    private Stream<OnDemandAnimationProperty<N, T>> retrieveOnDemandProperties() {
-        return this.propertyRetrievers.stream()
-                .map(OnDemandAnimationProperty::new)
-                .peek(property -> property.targetNodeProperty().bind(targetNodeProperty()))
-                .peek(super::copyAttributesTo);
+    private List<OnDemandAnimationProperty<N, T>> retrieveOnDemandProperties() {
+        if (properties == null) {
+            properties = this.propertyRetrievers.stream()
+                    .map(OnDemandAnimationProperty::new)
+                    .peek(property -> property.targetNodeProperty().bind(targetNodeProperty()))
+                    .peek(super::copyAttributesTo)
+                    .collect(Collectors.toList());
+        }
+        return properties;
     }
 
     /**
@@ -43,6 +50,43 @@ public class OnDemandAnimationPropertyGroup<N extends Node, T> extends OnDemandA
         this.retrieveOnDemandProperties().forEach(property -> property.register(target));
     }
 
+    /**
+     * {@inheritDoc}
+     * All the sub-properties are unregistered.
+     */
+    @Override
+    public void unregister() {
+        this.retrieveOnDemandProperties().forEach(OnDemandAnimationProperty::unregister);
+    }
+
+    /**
+     * {@inheritDoc}
+     * All the sub-properties are disposed.
+     */
+    @Override
+    public void dispose() {
+        super.dispose();
+        if (properties != null) {
+            properties.forEach(property -> {
+                super.unbindAttributesFrom(property);
+                property.dispose();
+            });
+            properties = null;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * The option is applied to all the sub-properties too.
+     */
+    @Override
+    public void setWeakRegistration(boolean weakRegistration) {
+        super.setWeakRegistration(weakRegistration);
+        if (properties != null) {
+            properties.forEach(property -> property.setWeakRegistration(weakRegistration));
+        }
+    }
+
     /**
      * {@inheritDoc}
      * All the sub-properties are applied to the target animated node.
@@ -52,6 +96,15 @@ public class OnDemandAnimationPropertyGroup<N extends Node, T> extends OnDemandA
         this.retrieveOnDemandProperties().forEach(property -> property.attachTo(animated));
     }
 
+    /**
+     * {@inheritDoc}
+     * All the sub-properties are detached from the target animated node.
+     */
+    @Override
+    public void detachFrom(Animated animated) {
+        this.retrieveOnDemandProperties().forEach(property -> property.detachFrom(animated));
+    }
+
     /**
      * @throws UnsupportedOperationException an on-demand property group cannot be bound
      */
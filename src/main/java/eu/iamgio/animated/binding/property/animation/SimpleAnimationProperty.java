@@ -2,11 +2,16 @@ package eu.iamgio.animated.binding.property.animation;
 
 import eu.iamgio.animated.binding.Animated;
 import eu.iamgio.animated.binding.AnimationSettings;
+import eu.iamgio.animated.binding.HiddenTargetPolicy;
+import eu.iamgio.animated.binding.InterruptionPolicy;
 import eu.iamgio.animated.binding.event.AnimationEvent;
+import eu.iamgio.animated.binding.property.wrapper.DoublePropertyWrapper;
 import eu.iamgio.animated.binding.property.wrapper.PropertyWrapper;
 import javafx.animation.*;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.Property;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.WeakChangeListener;
 import javafx.event.EventHandler;
 import javafx.scene.Node;
 
@@ -23,6 +28,15 @@ public class SimpleAnimationProperty<T> extends AnimationProperty<T> {
     // Animation timeline
     private final Timeline timeline;
 
+    // Receiver of the frames played by the shared scheduler, if used
+    private final AnimationScheduler.Target schedulerTarget;
+
+    // Whether the current change is fired by this property itself, e.g. a frame played by the shared scheduler
+    private boolean internalChange = false;
+
+    // Last value set within the current pulse, if changes are coalesced
+    private T pendingValue;
+
     // Last time an animation frame was played (in millis)
     private double lastUpdate;
 
@@ -32,6 +46,30 @@ public class SimpleAnimationProperty<T> extends AnimationProperty<T> {
     // Whether the changes should be handled (internally handled)
     private boolean handleChanges = false;
 
+    // Listener to the wrapped property, if registered
+    private ChangeListener<T> listener;
+
+    // Listener actually registered on the wrapped property: either the listener itself or a weak wrapper of it
+    private ChangeListener<T> registeredListener;
+
+    // Wrapped property the listener is registered on
+    private PropertyWrapper<T> registeredProperty;
+
+    // Nullable target node the listener is registered for
+    private Node registeredTarget;
+
+    // Value the last animation is heading to
+    private T endValue;
+
+    // Tracks whether the target node is rendered, if hidden targets are not animated
+    private VisibilityTracker visibilityTracker;
+
+    // Value to animate to once the target node is rendered again, if deferred
+    private T deferredValue;
+
+    // Whether a change is waiting for the target node to be rendered
+    private boolean deferred = false;
+
     /**
      * Instantiates an implicitly animated property
      * @param property target property
@@ -43,10 +81,48 @@ public class SimpleAnimationProperty<T> extends AnimationProperty<T> {
 
         timeline.currentTimeProperty().addListener(o -> {
             lastUpdate = timeline.getCurrentTime().toMillis();
-            lastValue = property.getValue();
+            lastValue = getProperty().getValue();
         });
 
         timeline.setOnFinished(e -> fireEvent(onAnimationEndedProperty(), new AnimationEvent(false)));
+
+        this.schedulerTarget = new AnimationScheduler.Target() {
+            @SuppressWarnings("unchecked")
+            @Override
+            protected void update(Object value) {
+                internalChange = true;
+                getProperty().set((T) value);
+                internalChange = false;
+            }
+
+            @Override
+            protected void update(double value) {
+                internalChange = true;
+                ((DoublePropertyWrapper) getProperty()).setDouble(value);
+                internalChange = false;
+            }
+
+            @Override
+            protected void finished() {
+                fireEvent(onAnimationEndedProperty(), new AnimationEvent(false));
+            }
+
+            @Override
+            protected void flush() {
+                final T value = pendingValue;
+                pendingValue = null;
+                // The property was unregistered before the flush
+                if (listener == null) {
+                    return;
+                }
+                // The property was paused or the target node was detached before the flush
+                if (isPaused() || (registeredTarget != null && registeredTarget.getScene() == null)) {
+                    setInternally(value);
+                } else {
+                    handleChanges(value, isRunning());
+                }
+            }
+        };
     }
 
     /**
@@ -63,28 +139,64 @@ public class SimpleAnimationProperty<T> extends AnimationProperty<T> {
      * @param interrupted whether the animation was interrupted before it could finish as expected
      */
     private void handleChanges(T value, boolean interrupted) {
-        // Temporarily stop the timeline in case it is currently running
+        final AnimationSettings settings = getSettings();
+        final InterruptionPolicy policy = settings.getInterruptionPolicy();
+        final AnimationScheduler scheduler = AnimationScheduler.getInstance();
+        Interpolator interpolator = settings.getInterpolator();
+
+        // Retargeting requires the animation to be played by the scheduler
+        final boolean numeric = getProperty() instanceof DoublePropertyWrapper;
+        final boolean retarget = policy != InterruptionPolicy.RESTART;
+
+        // A running animation that is retargeted in place is not interrupted, hence no event is fired
+        final boolean inPlace = interrupted && retarget
+                && timeline.getStatus() != Animation.Status.RUNNING && scheduler.canRetarget(schedulerTarget, numeric);
+
+        this.endValue = value;
+
+        // Temporarily stop the animation in case it is currently running
         if (interrupted) {
             timeline.stop();
-            this.fireEvent(onAnimationEndedProperty(), new AnimationEvent(true));
+            if (!retarget) {
+                scheduler.stop(schedulerTarget);
+            }
+            if (!inPlace) {
+                this.fireEvent(onAnimationEndedProperty(), new AnimationEvent(true));
+            }
         }
 
-        final AnimationSettings settings = getSettings();
-        Interpolator interpolator = settings.getCurve().toInterpolator();
+        if (retarget && numeric) {
+            // Continue the running animation, if any, towards the new value
+            scheduler.retarget(schedulerTarget,
+                    ((DoublePropertyWrapper) getProperty()).getDouble(), (Double) value,
+                    settings.getDuration(), settings.getCurve(), settings.getCurveResolution(), policy);
+        } else if (retarget) {
+            scheduler.retarget(schedulerTarget, getProperty().getValue(), value, settings.getDuration(), interpolator, policy);
+        } else if (settings.isScheduled() && numeric) {
+            // Play the animation on the numeric lane of the shared pulse
+            scheduler.play(schedulerTarget,
+                    ((DoublePropertyWrapper) getProperty()).getDouble(), (Double) value,
+                    settings.getDuration(), settings.getCurve(), settings.getCurveResolution());
+        } else if (settings.isScheduled()) {
+            // Play the animation on the shared pulse
+            scheduler.play(schedulerTarget, getProperty().getValue(), value, settings.getDuration(), interpolator);
+        } else {
+            // Set keyframes
+            timeline.getKeyFrames().setAll(
+                    new KeyFrame(settings.getDuration(), new KeyValue(getProperty().getProperty(), value, interpolator))
+            );
 
-        // Set keyframes
-        timeline.getKeyFrames().setAll(
-                new KeyFrame(settings.getDuration(), new KeyValue(getProperty().getProperty(), value, interpolator))
-        );
-
-        // Play the animation
-        timeline.play();
+            // Play the animation
+            timeline.play();
+        }
 
-        this.fireEvent(onAnimationStartedProperty(), new AnimationEvent(interrupted));
+        if (!inPlace) {
+            this.fireEvent(onAnimationStartedProperty(), new AnimationEvent(interrupted));
+        }
     }
 
     private boolean isRunning() {
-        return timeline.getStatus() == Animation.Status.RUNNING;
+        return timeline.getStatus() == Animation.Status.RUNNING || AnimationScheduler.getInstance().isRunning(schedulerTarget);
     }
 
     /**
@@ -94,23 +206,169 @@ public class SimpleAnimationProperty<T> extends AnimationProperty<T> {
         return timeline.getCurrentTime().toMillis() == lastUpdate && (newPropertyValue.equals(lastValue) || oldPropertyValue.equals(lastValue));
     }
 
+    /**
+     * @param target nullable target node
+     * @return whether the target node is not rendered, if hidden targets are not animated.
+     *         The target node is tracked from the first call on
+     * @see HiddenTargetPolicy
+     */
+    private boolean isHidden(Node target) {
+        if (target == null || getSettings().getHiddenTargetPolicy() == HiddenTargetPolicy.ANIMATE) {
+            return false;
+        }
+        if (visibilityTracker == null || visibilityTracker.getTarget() != target) {
+            if (visibilityTracker != null) {
+                visibilityTracker.dispose();
+            }
+            visibilityTracker = new VisibilityTracker(target, this::onVisibilityChanged);
+        }
+        return !visibilityTracker.isRendered();
+    }
+
+    /**
+     * Handles an external change that happened while the target node is not rendered:
+     * the new value is either kept or deferred, according to the {@link HiddenTargetPolicy}.
+     * @param oldValue value before the change
+     * @param newValue value after the change
+     * @param running whether an animation is running
+     */
+    private void handleHiddenChange(T oldValue, T newValue, boolean running) {
+        if (running) {
+            timeline.stop();
+            AnimationScheduler.getInstance().stop(schedulerTarget);
+            this.fireEvent(onAnimationEndedProperty(), new AnimationEvent(true));
+        }
+
+        if (getSettings().getHiddenTargetPolicy() == HiddenTargetPolicy.DEFER) {
+            setInternally(oldValue);
+            deferredValue = newValue;
+            deferred = true;
+        } else {
+            deferredValue = null;
+            deferred = false;
+        }
+    }
+
+    /**
+     * Called whenever the target node is hidden or rendered again:
+     * a running animation is brought to its end, or the deferred change is animated.
+     */
+    private void onVisibilityChanged() {
+        final HiddenTargetPolicy policy = getSettings().getHiddenTargetPolicy();
+
+        if (!visibilityTracker.isRendered()) {
+            if (policy != HiddenTargetPolicy.ANIMATE && isRunning()) {
+                finish();
+            }
+        } else if (deferred) {
+            final T value = deferredValue;
+            deferredValue = null;
+            deferred = false;
+
+            if (policy == HiddenTargetPolicy.DEFER && !isPaused() && visibilityTracker.getTarget().getScene() != null) {
+                handleChanges(value, false);
+            } else {
+                setInternally(value);
+            }
+        }
+    }
+
+    /**
+     * Stops the running animation and applies its end value at once.
+     */
+    private void finish() {
+        timeline.stop();
+        AnimationScheduler.getInstance().stop(schedulerTarget);
+        setInternally(endValue);
+        this.fireEvent(onAnimationEndedProperty(), new AnimationEvent(false));
+    }
+
+    /**
+     * Changes the value of the wrapped property without it being handled as an external change.
+     * @param value new value to set
+     */
+    private void setInternally(T value) {
+        internalChange = true;
+        getProperty().set(value);
+        internalChange = false;
+    }
+
     /**
      * {@inheritDoc}
+     * If this property was already registered, the previous listener is replaced.
+     * If the {@link HiddenTargetPolicy} of the settings is not {@link HiddenTargetPolicy#ANIMATE},
+     * changes that happen while the target node is not rendered are not animated.
      */
     public void register(Node target) {
-        getProperty().addListener(((observable, oldValue, newValue) -> {
+        removeListener();
+
+        this.listener = (observable, oldValue, newValue) -> {
+            // Frames played by the shared scheduler and values set internally are not external changes
+            if (internalChange) {
+                return;
+            }
             if (isPaused() || (target != null && target.getScene() == null)) {
                 return;
             }
 
             boolean running = isRunning();
             if (!running || !isAnimationFrame(oldValue, newValue)) {
+                if (isHidden(target)) {
+                    handleHiddenChange(oldValue, newValue, running);
+                    return;
+                }
                 if (handleChanges ^= true) {
                     getProperty().set(oldValue);
-                    handleChanges(newValue, running);
+                    if (getSettings().isCoalescing()) {
+                        // Only the last value within the pulse is animated
+                        pendingValue = newValue;
+                        AnimationScheduler.getInstance().requestFlush(schedulerTarget);
+                    } else {
+                        handleChanges(newValue, running);
+                    }
                 }
             }
-        }));
+        };
+        this.registeredListener = isWeakRegistration() ? new WeakChangeListener<>(listener) : listener;
+        this.registeredProperty = getProperty();
+        this.registeredTarget = target;
+        registeredProperty.addListener(registeredListener);
+    }
+
+    /**
+     * {@inheritDoc}
+     * The keyframes of the timeline are cleared, so that it does not keep a reference to the wrapped property.
+     */
+    @Override
+    public void unregister() {
+        removeListener();
+
+        timeline.stop();
+        timeline.getKeyFrames().clear();
+        AnimationScheduler.getInstance().stop(schedulerTarget);
+
+        if (visibilityTracker != null) {
+            visibilityTracker.dispose();
+            visibilityTracker = null;
+        }
+
+        pendingValue = null;
+        endValue = null;
+        deferredValue = null;
+        deferred = false;
+        lastValue = null;
+        lastUpdate = 0;
+        handleChanges = false;
+    }
+
+    private void removeListener() {
+        if (listener != null) {
+            registeredProperty.removeListener(registeredListener);
+            listener = null;
+            registeredListener = null;
+            registeredProperty = null;
+            registeredTarget = null;
+        }
     }
 
     /**
@@ -0,0 +1,303 @@
+package eu.iamgio.animated.binding.property.animation;
+
+import eu.iamgio.animated.binding.Animated;
+import eu.iamgio.animated.binding.event.AnimationEvent;
+import eu.iamgio.animated.binding.property.wrapper.DoublePropertyWrapper;
+import eu.iamgio.animated.binding.property.wrapper.PropertyWrapper;
+import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.Property;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.WeakChangeListener;
+import javafx.event.EventHandler;
+import javafx.scene.Node;
+
+import java.util.function.Function;
+
+/**
+ * A physics-based implementation of {@link AnimationProperty}: whenever the value of the wrapped property changes,
+ * a damped spring pulls the displayed value towards the new one. A change that happens while the spring is still
+ * in motion retargets it, preserving its velocity.
+ * <p>
+ * The spring is driven by the shared {@link AnimationScheduler}: it is stepped on every pulse while in motion,
+ * and goes to sleep as soon as both its velocity and its displacement fall below the rest threshold,
+ * so that an idle property costs nothing.
+ * Duration and curve of the {@link eu.iamgio.animated.binding.AnimationSettings} do not affect springs.
+ * Animation events are fired when the spring wakes up and when it comes to rest.
+ * @author Giorgio Garofalo
+ */
+public class SpringAnimationProperty extends AnimationProperty<Double> {
+
+    // Maximum integration step (in seconds), which keeps stiff springs stable
+    private static final double MAX_STEP = 1.0 / 240;
+
+    private double stiffness = 170;
+    private double damping = 26;
+    private double mass = 1;
+    private double restThreshold = 0.001;
+
+    // Value the spring is pulling towards
+    private double target;
+
+    // Current velocity, in units per second
+    private double velocity;
+
+    // Whether the current change is fired by the spring itself
+    private boolean internalChange = false;
+
+    // Listener to the wrapped property, if registered
+    private ChangeListener<Double> listener;
+
+    // Listener actually registered on the wrapped property: either the listener itself or a weak wrapper of it
+    private ChangeListener<Double> registeredListener;
+
+    // Wrapped property the listener is registered on
+    private PropertyWrapper<Double> registeredProperty;
+
+    private final AnimationScheduler.Simulation simulation = new AnimationScheduler.Simulation() {
+        @Override
+        protected boolean step(double seconds) {
+            return SpringAnimationProperty.this.step(seconds);
+        }
+
+        @Override
+        protected void asleep() {
+            fireEvent(onAnimationEndedProperty(), new AnimationEvent(false));
+        }
+    };
+
+    /**
+     * Instantiates a spring-animated property.
+     * @param property target property
+     */
+    public SpringAnimationProperty(DoublePropertyWrapper property) {
+        super(property);
+    }
+
+    /**
+     * Instantiates a spring-animated property.
+     * @param property JavaFX property to wrap
+     */
+    public SpringAnimationProperty(DoubleProperty property) {
+        this(new DoublePropertyWrapper(property));
+    }
+
+    /**
+     * Advances the spring.
+     * @param seconds elapsed time
+     * @return whether the spring is still in motion
+     */
+    private boolean step(double seconds) {
+        final DoublePropertyWrapper property = (DoublePropertyWrapper) getProperty();
+        double value = property.getDouble();
+
+        // Semi-implicit Euler integration
+        for (double remaining = seconds; remaining > 0; remaining -= MAX_STEP) {
+            final double h = Math.min(remaining, MAX_STEP);
+            final double acceleration = (-stiffness * (value - target) - damping * velocity) / mass;
+            velocity += acceleration * h;
+            value += velocity * h;
+        }
+
+        final boolean atRest = Math.abs(velocity) < restThreshold && Math.abs(value - target) < restThreshold;
+        if (atRest) {
+            value = target;
+            velocity = 0;
+        }
+
+        internalChange = true;
+        property.setDouble(value);
+        internalChange = false;
+
+        return !atRest;
+    }
+
+    /**
+     * Pulls the spring towards a new value, waking it up if needed.
+     * @param value new target value
+     */
+    private void animateTo(double value) {
+        final AnimationScheduler scheduler = AnimationScheduler.getInstance();
+        this.target = value;
+
+        if (!scheduler.isAwake(simulation)) {
+            scheduler.wake(simulation);
+            fireEvent(onAnimationStartedProperty(), new AnimationEvent(false));
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * If this property was already registered, the previous listener is replaced.
+     */
+    @Override
+    public void register(Node target) {
+        removeListener();
+
+        this.listener = (observable, oldValue, newValue) -> {
+            if (internalChange) {
+                return;
+            }
+
+            if (isPaused() || (target != null && target.getScene() == null)) {
+                // The new value is applied immediately
+                AnimationScheduler.getInstance().sleep(simulation);
+                velocity = 0;
+                return;
+            }
+
+            // Revert the change and let the spring reach the new value
+            internalChange = true;
+            getProperty().set(oldValue);
+            internalChange = false;
+
+            animateTo(newValue);
+        };
+        this.registeredListener = isWeakRegistration() ? new WeakChangeListener<>(listener) : listener;
+        this.registeredProperty = getProperty();
+        registeredProperty.addListener(registeredListener);
+    }
+
+    /**
+     * {@inheritDoc}
+     * If the spring is in motion, it is put to sleep and the property is set to the value it was pulling towards.
+     */
+    @Override
+    public void unregister() {
+        removeListener();
+
+        final AnimationScheduler scheduler = AnimationScheduler.getInstance();
+        if (scheduler.isAwake(simulation)) {
+            scheduler.sleep(simulation);
+
+            internalChange = true;
+            ((DoublePropertyWrapper) getProperty()).setDouble(target);
+            internalChange = false;
+
+            fireEvent(onAnimationEndedProperty(), new AnimationEvent(false));
+        }
+        velocity = 0;
+    }
+
+    private void removeListener() {
+        if (listener != null) {
+            registeredProperty.removeListener(registeredListener);
+            listener = null;
+            registeredListener = null;
+            registeredProperty = null;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void attachTo(Animated animated) {
+        this.register(animated.getChild());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <V> AnimationProperty<Double> addBinding(Property<V> targetProperty, Function<Double, V> mapper) {
+        getProperty().bindMapped(targetProperty, mapper);
+        return this;
+    }
+
+    /**
+     * @return whether the spring is currently in motion
+     */
+    public boolean isInMotion() {
+        return AnimationScheduler.getInstance().isAwake(simulation);
+    }
+
+    /**
+     * @return stiffness of the spring. Defaults to 170
+     */
+    public double getStiffness() {
+        return stiffness;
+    }
+
+    /**
+     * @param stiffness positive stiffness of the spring: higher values result in faster motion
+     * @return this for concatenation
+     * @throws IllegalArgumentException if <tt>stiffness</tt> is not positive
+     */
+    public SpringAnimationProperty withStiffness(double stiffness) {
+        if (stiffness <= 0) {
+            throw new IllegalArgumentException("The stiffness of a spring must be positive.");
+        }
+        this.stiffness = stiffness;
+        return this;
+    }
+
+    /**
+     * @return damping of the spring. Defaults to 26, which makes the default spring slightly under-damped
+     *         (critical damping being <tt>2 * sqrt(170 * 1)</tt>, about 26.08), with a barely noticeable overshoot
+     */
+    public double getDamping() {
+        return damping;
+    }
+
+    /**
+     * @param damping non-negative damping of the spring. Values lower than <tt>2 * sqrt(stiffness * mass)</tt>
+     *                make the spring under-damped, hence it oscillates before coming to rest
+     * @return this for concatenation
+     * @throws IllegalArgumentException if <tt>damping</tt> is negative
+     */
+    public SpringAnimationProperty withDamping(double damping) {
+        if (damping < 0) {
+            throw new IllegalArgumentException("The damping of a spring cannot be negative.");
+        }
+        this.damping = damping;
+        return this;
+    }
+
+    /**
+     * @return mass attached to the spring. Defaults to 1
+     */
+    public double getMass() {
+        return mass;
+    }
+
+    /**
+     * @param mass positive mass attached to the spring: higher values result in slower motion
+     * @return this for concatenation
+     * @throws IllegalArgumentException if <tt>mass</tt> is not positive
+     */
+    public SpringAnimationProperty withMass(double mass) {
+        if (mass <= 0) {
+            throw new IllegalArgumentException("The mass of a spring must be positive.");
+        }
+        this.mass = mass;
+        return this;
+    }
+
+    /**
+     * @return velocity and displacement below which the spring goes to sleep. Defaults to 0.001
+     */
+    public double getRestThreshold() {
+        return restThreshold;
+    }
+
+    /**
+     * @param restThreshold positive velocity and displacement below which the spring goes to sleep
+     * @return this for concatenation
+     * @throws IllegalArgumentException if <tt>restThreshold</tt> is not positive
+     */
+    public SpringAnimationProperty withRestThreshold(double restThreshold) {
+        if (restThreshold <= 0) {
+            throw new IllegalArgumentException("The rest threshold of a spring must be positive.");
+        }
+        this.restThreshold = restThreshold;
+        return this;
+    }
+
+    private void fireEvent(ObjectProperty<EventHandler<AnimationEvent>> handlerProperty, AnimationEvent event) {
+        EventHandler<? super AnimationEvent> handler = handlerProperty.get();
+        if (handler != null) {
+            handler.handle(event);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package eu.iamgio.animated.binding.property.animation;
+
+import javafx.beans.InvalidationListener;
+import javafx.beans.Observable;
+import javafx.beans.WeakInvalidationListener;
+import javafx.beans.value.ObservableValue;
+import javafx.geometry.Bounds;
+import javafx.scene.Node;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.control.Tab;
+import javafx.scene.control.TabPane;
+import javafx.scene.control.TitledPane;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps track of whether a node is actually rendered: neither it nor its ancestors are invisible,
+ * it is not part of the content of a collapsed {@link TitledPane} or of an unselected {@link Tab},
+ * and it intersects the viewport of its {@link ScrollPane} ancestors.
+ * <p>
+ * The state is updated incrementally, by listening only to the properties of the node and of its ancestors
+ * that can affect it. Listeners are weakly registered, so the tracker does not outlive its owner.
+ */
+class VisibilityTracker {
+
+    private final Node target;
+
+    // Called whenever the rendered state changes
+    private final Runnable onChange;
+
+    // Nodes from the target to the root, updated whenever the hierarchy changes
+    private final List<Node> chain = new ArrayList<>();
+
+    // Properties the listeners are registered on
+    private final List<Observable> observed = new ArrayList<>();
+
+    // Listener to the hierarchy of the target node
+    private final InvalidationListener structureListener = o -> {
+        rebuild();
+        update();
+    };
+
+    // Listener to the properties that affect the rendered state
+    private final InvalidationListener stateListener = o -> {
+        validate(o);
+        update();
+    };
+
+    private final InvalidationListener weakStructureListener = new WeakInvalidationListener(structureListener);
+    private final InvalidationListener weakStateListener = new WeakInvalidationListener(stateListener);
+
+    // Whether the target node is rendered
+    private boolean rendered;
+
+    /**
+     * Starts tracking a node.
+     * @param target node to track
+     * @param onChange action to run whenever the rendered state of the node changes
+     */
+    VisibilityTracker(Node target, Runnable onChange) {
+        this.target = target;
+        this.onChange = onChange;
+        rebuild();
+        this.rendered = computeRendered();
+    }
+
+    /**
+     * @return the tracked node
+     */
+    Node getTarget() {
+        return target;
+    }
+
+    /**
+     * @return whether the tracked node is rendered
+     */
+    boolean isRendered() {
+        return rendered;
+    }
+
+    /**
+     * Stops tracking the node.
+     */
+    void dispose() {
+        for (Observable observable : observed) {
+            observable.removeListener(weakStructureListener);
+            observable.removeListener(weakStateListener);
+        }
+        observed.clear();
+        chain.clear();
+    }
+
+    /**
+     * Registers the listeners on the current hierarchy of the target node.
+     */
+    private void rebuild() {
+        dispose();
+
+        int outermostScrollPane = -1;
+        for (Node node = target; node != null; node = node.getParent()) {
+            chain.add(node);
+            observe(node.parentProperty(), weakStructureListener);
+            observe(node.visibleProperty(), weakStateListener);
+
+            if (node instanceof TitledPane) {
+                observe(((TitledPane) node).expandedProperty(), weakStateListener);
+                observe(((TitledPane) node).contentProperty(), weakStateListener);
+            } else if (node instanceof TabPane) {
+                observe(((TabPane) node).getSelectionModel().selectedItemProperty(), weakStateListener);
+                observe(((TabPane) node).getTabs(), weakStateListener);
+            } else if (node instanceof ScrollPane) {
+                observe(((ScrollPane) node).viewportBoundsProperty(), weakStateListener);
+                outermostScrollPane = chain.size() - 1;
+            }
+        }
+
+        // Scrolling moves the nodes between the target and the viewport, including the ones of the skin
+        for (int i = 0; i < outermostScrollPane; i++) {
+            observe(chain.get(i).boundsInParentProperty(), weakStateListener);
+        }
+    }
+
+    private void observe(Observable observable, InvalidationListener listener) {
+        observable.addListener(listener);
+        observed.add(observable);
+        validate(observable);
+    }
+
+    /**
+     * Invalidation listeners are only notified when a valid value becomes invalid:
+     * reading the value makes sure the next change is notified too.
+     * @param observable observable to validate
+     */
+    private static void validate(Observable observable) {
+        if (observable instanceof ObservableValue) {
+            ((ObservableValue<?>) observable).getValue();
+        }
+    }
+
+    /**
+     * Computes the rendered state and notifies the change, if any.
+     */
+    private void update() {
+        final boolean rendered = computeRendered();
+        if (rendered != this.rendered) {
+            this.rendered = rendered;
+            onChange.run();
+        }
+    }
+
+    /**
+     * @return whether the target node is currently rendered
+     */
+    private boolean computeRendered() {
+        Bounds targetBounds = null;
+
+        for (Node node : chain) {
+            if (!node.isVisible()) {
+                return false;
+            }
+
+            if (node instanceof TitledPane) {
+                final TitledPane titledPane = (TitledPane) node;
+                if (!titledPane.isExpanded() && isInChain(titledPane.getContent())) {
+                    return false;
+                }
+            } else if (node instanceof TabPane) {
+                // Tabs are flagged as selected only after the selected item is changed
+                final Tab selected = ((TabPane) node).getSelectionModel().getSelectedItem();
+                for (Tab tab : ((TabPane) node).getTabs()) {
+                    if (tab != selected && isInChain(tab.getContent())) {
+                        return false;
+                    }
+                }
+            } else if (node instanceof ScrollPane) {
+                final ScrollPane scrollPane = (ScrollPane) node;
+                if (isInChain(scrollPane.getContent())) {
+                    if (targetBounds == null) {
+                        targetBounds = target.localToScene(target.getBoundsInLocal());
+                    }
+                    if (!targetBounds.intersects(scrollPane.localToScene(scrollPane.getLayoutBounds()))) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param node node to look for
+     * @return whether the given node is the target node or one of its ancestors
+     */
+    private boolean isInChain(Node node) {
+        return node != null && chain.contains(node);
+    }
+}
@@ -44,6 +44,21 @@ public class DoublePropertyWrapper implements PropertyWrapper<Double> {
         property.set(value);
     }
 
+    /**
+     * @return the wrapped value, without boxing
+     */
+    public double getDouble() {
+        return property.get();
+    }
+
+    /**
+     * Changes the value of the wrapped property without boxing.
+     * @param value new value to set
+     */
+    public void setDouble(double value) {
+        property.set(value);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -52,4 +67,13 @@ public class DoublePropertyWrapper implements PropertyWrapper<Double> {
     public void addListener(ChangeListener<? super Double> listener) {
         property.addListener((ChangeListener<? super Number>) listener);
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public void removeListener(ChangeListener<? super Double> listener) {
+        property.removeListener((ChangeListener<? super Number>) listener);
+    }
 }
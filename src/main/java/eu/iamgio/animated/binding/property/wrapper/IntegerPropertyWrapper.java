@@ -52,4 +52,13 @@ public class IntegerPropertyWrapper implements PropertyWrapper<Integer> {
     public void addListener(ChangeListener<? super Integer> listener) {
         property.addListener((ChangeListener<? super Number>) listener);
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public void removeListener(ChangeListener<? super Integer> listener) {
+        property.removeListener((ChangeListener<? super Number>) listener);
+    }
 }
@@ -51,4 +51,12 @@ public class ObjectPropertyWrapper<T> implements PropertyWrapper<T> {
     public void addListener(ChangeListener<? super T> listener) {
         property.addListener(listener);
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeListener(ChangeListener<? super T> listener) {
+        property.removeListener(listener);
+    }
 }
@@ -37,6 +37,15 @@ public interface PropertyWrapper<T> {
      */
     void addListener(ChangeListener<? super T> listener);
 
+    /**
+     * Unregisters a listener that was registered via {@link #addListener(ChangeListener)}.
+     * By default, the listener is removed from {@link #getProperty()}: wrappers that register listeners elsewhere should override this.
+     * @param listener listener to unregister
+     */
+    default void removeListener(ChangeListener<? super T> listener) {
+        getProperty().removeListener(listener);
+    }
+
     /**
      * Adds a binding to a target property: when the value of the wrapped property changes,
      * the target property is updated too, based on a mapper function.
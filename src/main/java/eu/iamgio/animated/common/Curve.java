@@ -3,6 +3,9 @@ package eu.iamgio.animated.common;
 import eu.iamgio.animated.binding.AnimationSettings;
 import javafx.animation.Interpolator;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.DoubleUnaryOperator;
 import java.util.function.Function;
 
 import static java.lang.Math.*;
@@ -114,7 +117,7 @@ public enum Curve {
     /**
      * @see <a href="https://easings.net/#easeInBounce">on easings.net</a>
      */
-    EASE_IN_BOUNCE(t -> 1 - EASE_OUT_BOUNCE.curve.apply(1 - t)),
+    EASE_IN_BOUNCE(t -> 1 - EASE_OUT_BOUNCE.evaluate(1 - t)),
 
     /**
      * @see <a href="https://easings.net/#easeInElastic">on easings.net</a>
@@ -165,8 +168,8 @@ public enum Curve {
      * @see <a href="https://easings.net/#easeInOutBounce">on easings.net</a>
      */
     EASE_IN_OUT_BOUNCE(t -> t < 0.5
-            ? (1 - EASE_OUT_BOUNCE.curve.apply(1 - 2 * t)) / 2
-            : (1 + EASE_IN_BOUNCE.curve.apply(2 * t - 1)) / 2),
+            ? (1 - EASE_OUT_BOUNCE.evaluate(1 - 2 * t)) / 2
+            : (1 + EASE_IN_BOUNCE.evaluate(2 * t - 1)) / 2),
 
     /**
      * @see <a href="https://easings.net/#easeInOutElastic">on easings.net</a>
@@ -189,28 +192,86 @@ public enum Curve {
     // END OF CURVES
     //
 
-    private final Function<Double, Double> curve;
+    // Maximum amount of lookup tables cached by each curve
+    private static final int MAX_CACHED_RESOLUTIONS = 4;
 
-    Curve(Function<Double, Double> curve) {
+    private final DoubleUnaryOperator curve;
+
+    // Boxed view of the curve, kept for compatibility with getCurveFunction()
+    private final Function<Double, Double> curveFunction;
+
+    // Immutable interpolator shared by every animation that uses this curve
+    private final Interpolator interpolator;
+
+    // Lookup tables generated via sampled(int), by resolution. Only the first resolutions are cached
+    private final Map<Integer, LutCurve> sampled = new ConcurrentHashMap<>();
+
+    Curve(DoubleUnaryOperator curve) {
         this.curve = curve;
+        this.curveFunction = curve::applyAsDouble;
+        this.interpolator = new Interpolator() {
+            @Override
+            protected double curve(double t) {
+                return curve.applyAsDouble(t);
+            }
+        };
     }
 
     /**
-     * @return the function that describes this curve
+     * Evaluates this curve without boxing.
+     * @param t progress of the animation, from 0 to 1
+     * @return interpolation factor at the given progress
      */
-    public Function<Double, Double> getCurveFunction() {
+    public double evaluate(double t) {
+        return curve.applyAsDouble(t);
+    }
+
+    /**
+     * Precomputes this curve into a lookup table, which is evaluated via linear interpolation between samples.
+     * The tables of the first few resolutions requested for this curve are cached, hence calling this method multiple times
+     * with the same resolution is cheap. Tables of further resolutions are computed again on each call.
+     * @param resolution amount of intervals the curve is split into
+     * @return a sampled version of this curve
+     * @throws IllegalArgumentException if <tt>resolution</tt> is not positive
+     * @see LutCurve#getMaxError()
+     */
+    public LutCurve sampled(int resolution) {
+        LutCurve lut = sampled.get(resolution);
+        if (lut != null) {
+            return lut;
+        }
+
+        lut = new LutCurve(this, resolution);
+        synchronized (sampled) {
+            if (sampled.size() < MAX_CACHED_RESOLUTIONS) {
+                final LutCurve cached = sampled.putIfAbsent(resolution, lut);
+                if (cached != null) {
+                    lut = cached;
+                }
+            }
+        }
+        return lut;
+    }
+
+    /**
+     * @return the primitive function that describes this curve
+     */
+    public DoubleUnaryOperator getCurveOperator() {
         return curve;
     }
 
     /**
-     * @return this curve to a JavaFX timeline interpolator
+     * @return the function that describes this curve.
+     *         Note: this boxes its input and output, hence {@link #evaluate(double)} should be preferred
+     */
+    public Function<Double, Double> getCurveFunction() {
+        return curveFunction;
+    }
+
+    /**
+     * @return this curve to a JavaFX timeline interpolator. The returned instance is cached and shared
      */
     public Interpolator toInterpolator() {
-        return new Interpolator() {
-            @Override
-            protected double curve(double t) {
-                return curve.apply(t);
-            }
-        };
+        return interpolator;
     }
 }
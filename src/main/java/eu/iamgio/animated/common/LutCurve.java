@@ -0,0 +1,140 @@
+package eu.iamgio.animated.common;
+
+import javafx.animation.Interpolator;
+
+/**
+ * A {@link Curve} precomputed into a lookup table of evenly spaced samples.
+ * Evaluation linearly interpolates between the two nearest samples, trading a small accuracy loss
+ * (see {@link #getMaxError()}) for the cost of the transcendental functions some curves rely on.
+ * Instances are immutable and can be shared between animations: two tables are equal if they sample the same curve
+ * with the same resolution.
+ * @author Giorgio Garofalo
+ * @see Curve#sampled(int)
+ */
+public final class LutCurve {
+
+    // Amount of sub-intervals each interval is split into when estimating the accuracy loss
+    private static final int ERROR_PROBES = 4;
+
+    private final Curve curve;
+    private final int resolution;
+    private final double[] samples;
+    private final double maxError;
+    private final Interpolator interpolator;
+
+    /**
+     * Samples the given curve.
+     * @param curve curve to sample
+     * @param resolution amount of intervals the curve is split into
+     * @throws IllegalArgumentException if <tt>resolution</tt> is not positive
+     */
+    LutCurve(Curve curve, int resolution) {
+        if (resolution < 1) {
+            throw new IllegalArgumentException("The resolution of a sampled curve must be positive.");
+        }
+
+        this.curve = curve;
+        this.resolution = resolution;
+        this.samples = new double[resolution + 1];
+
+        for (int i = 0; i <= resolution; i++) {
+            samples[i] = curve.evaluate((double) i / resolution);
+        }
+
+        this.maxError = measureMaxError();
+        this.interpolator = new Interpolator() {
+            @Override
+            protected double curve(double t) {
+                return evaluate(t);
+            }
+        };
+    }
+
+    /**
+     * Compares the sampled values against the analytic curve at a few points within each interval.
+     * @return the largest absolute difference found
+     */
+    private double measureMaxError() {
+        double max = 0;
+        for (int i = 0; i < resolution; i++) {
+            for (int probe = 1; probe < ERROR_PROBES; probe++) {
+                final double t = (i + (double) probe / ERROR_PROBES) / resolution;
+                max = Math.max(max, Math.abs(evaluate(t) - curve.evaluate(t)));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Evaluates this curve via linear interpolation of the precomputed samples.
+     * @param t progress of the animation, from 0 to 1
+     * @return interpolation factor at the given progress
+     */
+    public double evaluate(double t) {
+        if (t <= 0) {
+            return samples[0];
+        }
+        if (t >= 1) {
+            return samples[resolution];
+        }
+
+        final double position = t * resolution;
+        final int index = (int) position;
+        final double from = samples[index];
+
+        return from + (samples[index + 1] - from) * (position - index);
+    }
+
+    /**
+     * @return the analytic curve this table was sampled from
+     */
+    public Curve getCurve() {
+        return curve;
+    }
+
+    /**
+     * @return amount of intervals the curve is split into
+     */
+    public int getResolution() {
+        return resolution;
+    }
+
+    /**
+     * @return an estimate of the largest absolute difference between this table and the analytic curve,
+     *         measured at sampling time at a few points within each interval. It is not a strict bound:
+     *         the difference may be larger between those points
+     */
+    public double getMaxError() {
+        return maxError;
+    }
+
+    /**
+     * @return this curve to a JavaFX timeline interpolator. The returned instance is cached and shared
+     */
+    public Interpolator toInterpolator() {
+        return interpolator;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof LutCurve)) {
+            return false;
+        }
+        final LutCurve other = (LutCurve) o;
+        return curve == other.curve && resolution == other.resolution;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return 31 * curve.hashCode() + resolution;
+    }
+}
@@ -2,41 +2,68 @@ package eu.iamgio.animated.transition;
 
 import animatefx.animation.AnimationFX;
 import animatefx.animation.FadeOut;
+import eu.iamgio.animated.binding.AnimationSettings;
 import eu.iamgio.animated.common.Pausable;
 import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleBooleanProperty;
+import javafx.beans.property.SimpleDoubleProperty;
 import javafx.beans.property.SimpleObjectProperty;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
 import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 import javafx.geometry.Bounds;
+import javafx.geometry.Rectangle2D;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.SnapshotParameters;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
+import javafx.scene.image.WritableImage;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Pane;
 import javafx.scene.layout.VBox;
 import javafx.scene.transform.Scale;
+import javafx.stage.Window;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.LinkedList;
 import java.util.List;
 
 /**
  * An {@link AnimatedThemeSwitcher} provides animated transitions that are played when changing the stylesheets of a {@link Scene}.
+ * <p>
+ * In {@link ThemeSwitchMode#SNAPSHOT} mode, each transition takes a snapshot of the whole scene.
+ * In {@link ThemeSwitchMode#CROSSFADE} mode, no snapshot is taken, but each transition costs an additional CSS pass
+ * with the old theme applied, plus a visit of every node of the scene to record and compare its paints.
  * @author Giorgio Garofalo
  */
 public class AnimatedThemeSwitcher implements Pausable, ExitAnimationCompatible {
 
-    // Defines how bigger the snapshot should be, relatively to scene size.
-    // This avoids blurry images on high DPI screens.
-    private static final double SNAPSHOT_SCALE = 2;
+    // Maximum amount of snapshot buffers kept for reuse while no transition is playing
+    private static final int MAX_IDLE_BUFFERS = 1;
+
+    // Scale of the snapshot if it is not explicitly set and the scene is not shown on a screen yet
+    private static final double DEFAULT_SNAPSHOT_SCALE = 2;
 
     private final Scene scene;
 
     private final ObjectProperty<Animation> out;
     private final BooleanProperty pausedProperty = new SimpleBooleanProperty(false);
+    private final DoubleProperty snapshotScaleProperty = new SimpleDoubleProperty(0);
+    private final BooleanProperty bufferRetainedProperty = new SimpleBooleanProperty(false);
+    private final BooleanProperty coalescingProperty = new SimpleBooleanProperty(false);
+    private final ObjectProperty<ThemeSwitchMode> modeProperty = new SimpleObjectProperty<>(ThemeSwitchMode.SNAPSHOT);
+    private final ObjectProperty<AnimationSettings> crossfadeSettingsProperty = new SimpleObjectProperty<>(new AnimationSettings());
+
+    // Interpolates the paints of the scene in crossfade mode
+    private final ThemeCrossfade crossfade = new ThemeCrossfade();
+
+    // Snapshot buffers that are not displayed, ready to be reused
+    private final Deque<WritableImage> idleBuffers = new ArrayDeque<>();
 
     // Whether this switcher has been initialized via init()
     private boolean initialized;
@@ -44,6 +71,15 @@ public class AnimatedThemeSwitcher implements Pausable, ExitAnimationCompatible
     // Whether the changes to the stylesheets should be handled
     private boolean handleChanges = true;
 
+    // Stylesheets of the scene as of the last handled change
+    private List<String> appliedStylesheets;
+
+    // Stylesheets of the scene before the pending coalesced changes, or null if there are none
+    private List<String> pendingStylesheets;
+
+    // Whether a crossfade is going to be played on the next pulse
+    private boolean crossfadeRequested;
+
     /**
      * Instantiates an {@link AnimatedThemeSwitcher}.
      * In order for this switcher to work, {@link #init()} has to be called.
@@ -53,6 +89,12 @@ public class AnimatedThemeSwitcher implements Pausable, ExitAnimationCompatible
     public AnimatedThemeSwitcher(Scene scene, Animation animationOut) {
         this.scene = scene;
         this.out = new SimpleObjectProperty<>(Animation.requireNonNull(animationOut));
+
+        bufferRetainedProperty.addListener((observable, wasRetained, retained) -> {
+            if (!retained) {
+                releaseBuffers();
+            }
+        });
     }
 
     /**
@@ -104,12 +146,60 @@ public class AnimatedThemeSwitcher implements Pausable, ExitAnimationCompatible
 
     /**
      * Registers the listener that watches the stylesheets of the scene.
-     * Every time they change, an image of the 'old' scene is put on top and disappears via an animation.
+     * Every time they change, an image of the 'old' scene is put on top and disappears via an animation,
+     * or the colors of the 'old' scene are crossfaded to the new ones, depending on the mode.
      */
     private void register() {
+        appliedStylesheets = new ArrayList<>(scene.getStylesheets());
+
         // Set-up stylesheets listener
         scene.getStylesheets().addListener((ListChangeListener<? super String>) change -> {
+            if (!handleChanges) {
+                return;
+            }
+
             final ObservableList<String> stylesheets = scene.getStylesheets();
+
+            // The paints of the old theme are recorded now and compared to the new ones
+            // right before the next pulse applies CSS. All the changes until then are handled at once
+            if (getMode() == ThemeSwitchMode.CROSSFADE && !isPaused()) {
+                if (!crossfadeRequested) {
+                    crossfadeRequested = true;
+                    captureOldTheme();
+                    scene.addPreLayoutPulseListener(new Runnable() {
+                        @Override
+                        public void run() {
+                            scene.removePreLayoutPulseListener(this);
+                            crossfadeRequested = false;
+                            // The switcher may have been paused meanwhile
+                            if (isPaused()) {
+                                crossfade.discard();
+                            } else {
+                                crossfade.play(scene.getRoot(), getCrossfadeSettings());
+                            }
+                        }
+                    });
+                }
+                appliedStylesheets = new ArrayList<>(stylesheets);
+                return;
+            }
+
+            // All the changes until the next pulse are handled at once, starting from the stylesheets before the first one
+            if (isCoalescing() && !isPaused()) {
+                if (pendingStylesheets == null) {
+                    pendingStylesheets = appliedStylesheets;
+                    scene.addPreLayoutPulseListener(new Runnable() {
+                        @Override
+                        public void run() {
+                            scene.removePreLayoutPulseListener(this);
+                            flushCoalescedChanges();
+                        }
+                    });
+                }
+                appliedStylesheets = new ArrayList<>(stylesheets);
+                return;
+            }
+
             while (change.next() && handleChanges && !isPaused()) {
                 // Copy changes (to avoid ConcurrentModificationException)
                 final List<? extends String> added = new LinkedList<>(change.getAddedSubList());
@@ -130,34 +220,261 @@ public class AnimatedThemeSwitcher implements Pausable, ExitAnimationCompatible
 
                 handleChanges = true; // Resumes the listener
             }
+
+            appliedStylesheets = new ArrayList<>(stylesheets);
         });
     }
 
+    /**
+     * Plays a single transition from the stylesheets before the pending coalesced changes to the current ones,
+     * right before the next pulse renders them. The changes are dropped without a transition if the switcher has been paused meanwhile.
+     */
+    private void flushCoalescedChanges() {
+        final List<String> previous = pendingStylesheets;
+        pendingStylesheets = null;
+
+        final ObservableList<String> stylesheets = scene.getStylesheets();
+        if (previous == null || isPaused() || previous.equals(stylesheets)) {
+            return;
+        }
+
+        final List<String> current = new ArrayList<>(stylesheets);
+
+        handleChanges = false; // Puts the listener on hold
+
+        // Screenshot the scene with the old theme applied and play the out animation
+        stylesheets.setAll(previous);
+        overlapSnapshot();
+        stylesheets.setAll(current);
+
+        handleChanges = true; // Resumes the listener
+    }
+
+    /**
+     * Records the paints of the scene with the old theme applied, for the crossfade.
+     * Changing the stylesheets resets the styles of the scene, hence the old ones are applied again for a moment:
+     * this costs a CSS pass, but no rendering.
+     */
+    private void captureOldTheme() {
+        final ObservableList<String> stylesheets = scene.getStylesheets();
+        final List<String> current = new ArrayList<>(stylesheets);
+
+        handleChanges = false; // Puts the listener on hold
+
+        stylesheets.setAll(appliedStylesheets);
+        scene.getRoot().applyCss();
+        crossfade.capture(scene.getRoot());
+        stylesheets.setAll(current);
+
+        handleChanges = true; // Resumes the listener
+    }
+
     /**
      * Takes a snapshot/screenshot of the scene, puts it on top and plays the exit animation on it.
      */
     private void overlapSnapshot() {
+        final Pane root = (Pane) scene.getRoot();
+        final Bounds bounds = root.getLayoutBounds();
+
         // Prepares the screenshot of the scene.
         // The scale avoids blurry images on high DPI screens.
+        final double scale = getEffectiveSnapshotScale();
+        final int width = (int) Math.ceil(bounds.getWidth() * scale);
+        final int height = (int) Math.ceil(bounds.getHeight() * scale);
         final SnapshotParameters params = new SnapshotParameters();
-        params.setTransform(new Scale(SNAPSHOT_SCALE, SNAPSHOT_SCALE));
+        params.setTransform(new Scale(scale, scale));
+        params.setViewport(new Rectangle2D(bounds.getMinX() * scale, bounds.getMinY() * scale, width, height));
 
-        // Takes a screenshot.
-        final Pane root = (Pane) scene.getRoot();
-        final Image snapshot = root.snapshot(params, null);
+        // Takes a screenshot into a buffer that may be larger than needed, of which only the used area is displayed.
+        final WritableImage snapshot = root.snapshot(params, takeBuffer(width, height));
 
         // Adds the image on top of the root.
         final ImageView imageView = new ImageView(snapshot);
-        final Bounds bounds = root.getLayoutBounds();
+        imageView.setViewport(new Rectangle2D(0, 0, width, height));
         imageView.setFitWidth(bounds.getWidth());
         imageView.setFitHeight(bounds.getHeight());
 
         root.getChildren().add(imageView);
 
         // Plays the exit animation and removes the image after the transition ends.
+        // The buffer is recycled as soon as the image is not displayed anymore, that is when it leaves the root.
+        imageView.parentProperty().addListener(new ChangeListener<Parent>() {
+            @Override
+            public void changed(ObservableValue<? extends Parent> observable, Parent oldParent, Parent parent) {
+                if (parent == null) {
+                    observable.removeListener(this);
+                    imageView.setImage(null);
+                    releaseBuffer(snapshot);
+                }
+            }
+        });
         getOut().playOut(imageView, root.getChildren());
     }
 
+    /**
+     * @param width minimum width of the buffer, in pixels
+     * @param height minimum height of the buffer, in pixels
+     * @return an idle buffer that is large enough, or <tt>null</tt> if a new one has to be allocated by the snapshot
+     */
+    private WritableImage takeBuffer(int width, int height) {
+        final WritableImage buffer = idleBuffers.poll();
+        if (buffer != null && buffer.getWidth() >= width && buffer.getHeight() >= height) {
+            return buffer;
+        }
+        // A buffer that is too small is dropped
+        return null;
+    }
+
+    /**
+     * Makes a buffer available for the next snapshots, if buffers are retained and not enough of them are idle already.
+     * Otherwise, the buffer is dropped.
+     * @param buffer buffer that is not displayed anymore
+     */
+    private void releaseBuffer(WritableImage buffer) {
+        if (isBufferRetained() && idleBuffers.size() < MAX_IDLE_BUFFERS) {
+            idleBuffers.push(buffer);
+        }
+    }
+
+    /**
+     * Drops the snapshot buffers that are retained for the next transitions, if any, so that their memory can be reclaimed.
+     * Buffers that are displayed by a running transition are not affected.
+     */
+    public void releaseBuffers() {
+        idleBuffers.clear();
+    }
+
+    /**
+     * @return scale of the snapshot: the one explicitly set, or the output scale of the screen the scene is shown on
+     */
+    private double getEffectiveSnapshotScale() {
+        final double scale = getSnapshotScale();
+        if (scale > 0) {
+            return scale;
+        }
+        final Window window = scene.getWindow();
+        return window != null ? Math.max(window.getOutputScaleX(), window.getOutputScaleY()) : DEFAULT_SNAPSHOT_SCALE;
+    }
+
+    /**
+     * Defines how bigger the snapshot of the scene should be, relatively to scene size.
+     * A larger scale avoids blurry images on high DPI screens, at the cost of memory.
+     * If it is not greater than 0, the output scale of the screen the scene is shown on is used,
+     * or 2 if the scene is not shown yet.
+     * @return snapshot scale property
+     */
+    public DoubleProperty snapshotScaleProperty() {
+        return this.snapshotScaleProperty;
+    }
+
+    /**
+     * @return scale of the snapshot, relatively to scene size.
+     *         Defaults to 0, that is the output scale of the screen, or 2 if the scene is not shown yet
+     */
+    public double getSnapshotScale() {
+        return this.snapshotScaleProperty.get();
+    }
+
+    /**
+     * @param scale scale of the snapshot, relatively to scene size,
+     *              or a value not greater than 0 to use the output scale of the screen
+     */
+    public void setSnapshotScale(double scale) {
+        this.snapshotScaleProperty.set(scale);
+    }
+
+    /**
+     * Defines whether the buffer of the last snapshot is kept after its transition ends, so that the next transitions
+     * reuse it instead of allocating a new image. This saves an allocation per theme switch, at the cost of keeping
+     * an image as large as the scene in memory until {@link #releaseBuffers()} is called or this is disabled.
+     * @return buffer retention property
+     */
+    public BooleanProperty bufferRetainedProperty() {
+        return this.bufferRetainedProperty;
+    }
+
+    /**
+     * @return whether the buffer of the last snapshot is kept for the next transitions. Defaults to <tt>false</tt>
+     */
+    public boolean isBufferRetained() {
+        return this.bufferRetainedProperty.get();
+    }
+
+    /**
+     * @param retained whether the buffer of the last snapshot should be kept for the next transitions
+     */
+    public void setBufferRetained(boolean retained) {
+        this.bufferRetainedProperty.set(retained);
+    }
+
+    /**
+     * Defines whether all the changes to the stylesheets within the same pulse (e.g. a theme that spans several stylesheets
+     * being replaced via a removal and an addition) should result in a single transition, played on the next pulse.
+     * Otherwise, a transition (hence a snapshot) is played for each change.
+     * @return coalescing property
+     */
+    public BooleanProperty coalescingProperty() {
+        return this.coalescingProperty;
+    }
+
+    /**
+     * @return whether the changes to the stylesheets within the same pulse result in a single transition. Defaults to <tt>false</tt>
+     */
+    public boolean isCoalescing() {
+        return this.coalescingProperty.get();
+    }
+
+    /**
+     * @param coalescing whether the changes to the stylesheets within the same pulse should result in a single transition
+     */
+    public void setCoalescing(boolean coalescing) {
+        this.coalescingProperty.set(coalescing);
+    }
+
+    /**
+     * Defines how the transition from a theme to another is played. Defaults to {@link ThemeSwitchMode#SNAPSHOT}
+     * @return mode property
+     */
+    public ObjectProperty<ThemeSwitchMode> modeProperty() {
+        return this.modeProperty;
+    }
+
+    /**
+     * @return how the transition from a theme to another is played
+     */
+    public ThemeSwitchMode getMode() {
+        return this.modeProperty.get();
+    }
+
+    /**
+     * @param mode how the transition from a theme to another should be played
+     */
+    public void setMode(ThemeSwitchMode mode) {
+        this.modeProperty.set(mode);
+    }
+
+    /**
+     * Defines the duration and curve of the transition in {@link ThemeSwitchMode#CROSSFADE} mode.
+     * @return crossfade settings property
+     */
+    public ObjectProperty<AnimationSettings> crossfadeSettingsProperty() {
+        return this.crossfadeSettingsProperty;
+    }
+
+    /**
+     * @return duration and curve of the transition in {@link ThemeSwitchMode#CROSSFADE} mode
+     */
+    public AnimationSettings getCrossfadeSettings() {
+        return this.crossfadeSettingsProperty.get();
+    }
+
+    /**
+     * @param settings duration and curve of the transition in {@link ThemeSwitchMode#CROSSFADE} mode
+     */
+    public void setCrossfadeSettings(AnimationSettings settings) {
+        this.crossfadeSettingsProperty.set(settings);
+    }
+
     /**
      * {@inheritDoc}
      */
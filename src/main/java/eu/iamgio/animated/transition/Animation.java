@@ -3,24 +3,47 @@ package eu.iamgio.animated.transition;
 import animatefx.animation.AnimationFX;
 import eu.iamgio.animated.transition.animations.None;
 import eu.iamgio.animated.transition.animations.RequiresScene;
-import eu.iamgio.animated.util.ReflectionUtils;
 import javafx.application.Platform;
 import javafx.beans.NamedArg;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.event.EventHandler;
 import javafx.scene.Node;
 import javafx.util.Duration;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Objects;
+import java.util.function.Supplier;
 
 /**
  * Wrapper for {@link AnimationFX} with several properties.
+ * <p>
+ * By default, all the targets are animated by the same {@link AnimationFX}, which only keeps track of the last one.
+ * If this animation is pooled (see {@link #setPoolSize(int)}), each target that is animated at the same time as others
+ * gets its own {@link AnimationFX} instead, which is taken from a bounded pool and given back as soon as it stops.
  */
 public class Animation {
 
     private final AnimationFX animationFX;
 
+    // Creates the AnimationFX instances of the pool
+    private Supplier<? extends AnimationFX> factory;
+
+    // Idle AnimationFX instances, ready to be used
+    private final Deque<AnimationFX> pool = new ArrayDeque<>();
+
+    // Maximum amount of AnimationFX instances owned by the pool, 0 if this animation is not pooled
+    private int poolSize = 0;
+
+    // Amount of AnimationFX instances owned by the pool, either idle or in use
+    private int pooled = 0;
+
+    // AnimationFX instance that was played last
+    private AnimationFX last;
+
     private double speed = 1;
     private Duration delay = Duration.ZERO;
     private int cycleCount = 1;
@@ -34,13 +57,24 @@ public class Animation {
         this.animationFX = Objects.requireNonNull(animationFX);
     }
 
+    /**
+     * Instantiates a new {@link Animation} that wraps the {@link AnimationFX} instances created by the given factory.
+     * This is the suggested way to instantiate a pooled animation (see {@link #setPoolSize(int)}), as the pool is filled
+     * without reflection.
+     * @param factory supplier of new, non-null raw {@link AnimationFX} instances of the same kind
+     */
+    public Animation(Supplier<? extends AnimationFX> factory) {
+        this(factory.get());
+        this.factory = factory;
+    }
+
     /**
      * Instantiates a new {@link Animation} that wraps the given {@link AnimationFX}.
      * @param type name (case-sensitive) of the raw {@link AnimationFX} to wrap
      * @param speed speed multiplier of the animation
      * @param delay delay duration before the animation is played
-     * @throws IllegalArgumentException if the type does not match any AnimateFX animation
-     * @deprecated this method uses unnecessary reflection, hence it should be avoided.
+     * @throws IllegalArgumentException if the type does not match any animation of the {@link AnimationRegistry}
+     * @deprecated animations should be referred to by type rather than by name, hence this should be avoided.
      *             This was intended for FXML compatibility only
      */
     @Deprecated
@@ -50,19 +84,11 @@ public class Animation {
         this.speed = speed;
         this.delay = delay;
 
-        try {
-            this.animationFX = (AnimationFX) ReflectionUtils.findClassInPackages(
-                    type,
-                    "animatefx.animation",
-                    "eu.iamgio.animated.transition.animations",
-                    "eu.iamgio.animated.transition.animations.clip"
-            ).newInstance();
-        } catch (ReflectiveOperationException e) {
-            throw new IllegalArgumentException(e);
-        }
+        this.factory = AnimationRegistry.getFactory(type);
+        this.animationFX = factory.get();
     }
 
-    private void applyProperties() {
+    private void applyProperties(AnimationFX animationFX) {
         animationFX.setSpeed(speed);
         animationFX.setDelay(delay);
         animationFX.setCycleCount(cycleCount);
@@ -71,12 +97,85 @@ public class Animation {
         }
     }
 
+    /**
+     * Binds an {@link AnimationFX} to the target node.
+     * If this animation is pooled, the instance is taken from the pool and given back once its timeline stops.
+     * @param target node to animate
+     * @return the {@link AnimationFX} that animates the target
+     */
+    private AnimationFX obtain(Node target) {
+        if (poolSize <= 0) {
+            animationFX.setNode(target);
+            return last = animationFX;
+        }
+
+        final AnimationFX pooledFX = take();
+        // The pool is exhausted: a temporary instance is used, which is dropped once it stops
+        final AnimationFX animationFX = pooledFX != null ? pooledFX : newAnimationFX();
+        animationFX.setNode(target);
+
+        if (pooledFX != null) {
+            // Given back once it stops, either because it finished or because it was cancelled.
+            // There is nothing else to reset: the next target gets a new timeline
+            animationFX.getTimeline().statusProperty().addListener(new ChangeListener<javafx.animation.Animation.Status>() {
+                @Override
+                public void changed(ObservableValue<? extends javafx.animation.Animation.Status> observable,
+                                    javafx.animation.Animation.Status oldStatus, javafx.animation.Animation.Status status) {
+                    if (status == javafx.animation.Animation.Status.STOPPED) {
+                        observable.removeListener(this);
+                        pool.push(animationFX);
+                    }
+                }
+            });
+        }
+        return last = animationFX;
+    }
+
+    /**
+     * @return an idle {@link AnimationFX} from the pool, which is grown if needed, or <tt>null</tt> if the pool is exhausted
+     */
+    private AnimationFX take() {
+        if (!pool.isEmpty()) {
+            return pool.pop();
+        }
+        if (pooled < poolSize) {
+            // The wrapped instance is never pooled, as it may still be animating a target from before pooling was enabled
+            pooled++;
+            return newAnimationFX();
+        }
+        return null;
+    }
+
+    /**
+     * @return a new {@link AnimationFX} of the same kind as the wrapped one
+     */
+    private AnimationFX newAnimationFX() {
+        if (factory != null) {
+            return factory.get();
+        }
+        try {
+            return animationFX.getClass().getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot instantiate " + animationFX.getClass().getName() + " for the pool", e);
+        }
+    }
+
     /**
      * Plays the animation while adding the <tt>target</tt> node to <tt>children</tt>
      * @param target node to animate
      * @param children observable list to add the node to (if not <tt>null</tt>)
      */
     public void playIn(Node target, ObservableList<Node> children) {
+        playInAndGet(target, children);
+    }
+
+    /**
+     * Plays the animation while adding the <tt>target</tt> node to <tt>children</tt>
+     * @param target node to animate
+     * @param children observable list to add the node to (if not <tt>null</tt>)
+     * @return the {@link AnimationFX} that animates the target, which is not the wrapped one if this animation is pooled
+     */
+    public AnimationFX playInAndGet(Node target, ObservableList<Node> children) {
         if (children != null) {
             // If the animation has this tag,
             // the node must be added to the scene before playing the animation.
@@ -87,9 +186,10 @@ public class Animation {
             }
         }
 
-        animationFX.setNode(target);
-        applyProperties();
+        final AnimationFX animationFX = obtain(target);
+        applyProperties(animationFX);
         animationFX.play();
+        return animationFX;
     }
 
     /**
@@ -98,8 +198,18 @@ public class Animation {
      * @param children observable list to remove the node from (if not <tt>null</tt>)
      */
     public void playOut(Node target, ObservableList<Node> children) {
-        animationFX.setNode(target);
-        applyProperties();
+        playOutAndGet(target, children);
+    }
+
+    /**
+     * Plays the animation before removing the <tt>target</tt> node from <tt>children</tt>
+     * @param target node to animate
+     * @param children observable list to remove the node from (if not <tt>null</tt>)
+     * @return the {@link AnimationFX} that animates the target, which is not the wrapped one if this animation is pooled
+     */
+    public AnimationFX playOutAndGet(Node target, ObservableList<Node> children) {
+        final AnimationFX animationFX = obtain(target);
+        applyProperties(animationFX);
 
         if (children != null) {
             animationFX.setOnFinished(e -> {
@@ -111,14 +221,15 @@ public class Animation {
         }
 
         animationFX.play();
+        return animationFX;
     }
 
     /**
-     * @return status of the animation
+     * @return status of the animation that was played last
      */
     public javafx.animation.Animation.Status getStatus() {
-        if (animationFX != null && animationFX.getTimeline() != null) {
-            return animationFX.getTimeline().getStatus();
+        if (last != null && last.getTimeline() != null) {
+            return last.getTimeline().getStatus();
         }
         return javafx.animation.Animation.Status.STOPPED;
     }
@@ -137,6 +248,26 @@ public class Animation {
         return animationFX;
     }
 
+    /**
+     * @return maximum amount of {@link AnimationFX} instances kept by the pool, or 0 if this animation is not pooled
+     */
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    /**
+     * Makes this animation pooled: each target that is animated at the same time as others gets its own {@link AnimationFX},
+     * taken from a pool of at most <tt>poolSize</tt> instances that are reused once they stop.
+     * Beyond that, temporary instances are created. The pool is filled with new instances of the wrapped kind,
+     * created via the factory this animation was instantiated with, if any, or via its no-arg constructor otherwise.
+     * @param poolSize maximum amount of {@link AnimationFX} instances kept by the pool, or 0 to disable pooling
+     * @return this for concatenation
+     */
+    public Animation setPoolSize(int poolSize) {
+        this.poolSize = poolSize;
+        return this;
+    }
+
     /**
      * @return speed multiplier (1 = normal speed)
      */
@@ -0,0 +1,21 @@
+package eu.iamgio.animated.transition;
+
+import animatefx.animation.AnimationFX;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Provider of {@link AnimationFX} types that can be referred to by name, e.g. from FXML.
+ * Implementations are discovered via {@link java.util.ServiceLoader}: they need a public no-arg constructor
+ * and to be listed in <tt>META-INF/services/eu.iamgio.animated.transition.AnimationFactory</tt>.
+ * @see AnimationRegistry
+ * @author Giorgio Garofalo
+ */
+public interface AnimationFactory {
+
+    /**
+     * @return suppliers of new {@link AnimationFX} instances, mapped by the (case-sensitive) name of the animation
+     */
+    Map<String, Supplier<? extends AnimationFX>> getAnimations();
+}
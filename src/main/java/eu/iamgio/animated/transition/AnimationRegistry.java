@@ -0,0 +1,187 @@
+package eu.iamgio.animated.transition;
+
+import animatefx.animation.*;
+import eu.iamgio.animated.transition.animations.None;
+import eu.iamgio.animated.transition.animations.clip.CircleClipIn;
+import eu.iamgio.animated.transition.animations.clip.CircleClipOut;
+import eu.iamgio.animated.transition.animations.clip.RectangleClipIn;
+import eu.iamgio.animated.transition.animations.clip.RectangleClipOut;
+import eu.iamgio.animated.util.ReflectionUtils;
+
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Registry of the {@link AnimationFX} types that can be referred to by name, e.g. from FXML.
+ * <p>
+ * AnimateFX animations and the ones provided by this library are registered by default, without reflection.
+ * Further animations can be registered either via {@link #register(String, Supplier)}
+ * or by an {@link AnimationFactory} discovered via {@link ServiceLoader}.
+ * Names that do not match any registered animation are looked up by class name among the default packages,
+ * and the resolved type is cached so that the lookup happens only once per name.
+ * @author Giorgio Garofalo
+ */
+public final class AnimationRegistry {
+
+    // Packages unregistered animations are looked up in, in order
+    private static final String[] PACKAGES = {
+            "animatefx.animation",
+            "eu.iamgio.animated.transition.animations",
+            "eu.iamgio.animated.transition.animations.clip"
+    };
+
+    // Suppliers of new animations, mapped by name
+    private static final Map<String, Supplier<? extends AnimationFX>> ANIMATIONS = new ConcurrentHashMap<>();
+
+    static {
+        register("Bounce", Bounce::new);
+        register("BounceIn", BounceIn::new);
+        register("BounceInDown", BounceInDown::new);
+        register("BounceInLeft", BounceInLeft::new);
+        register("BounceInRight", BounceInRight::new);
+        register("BounceInUp", BounceInUp::new);
+        register("BounceOut", BounceOut::new);
+        register("BounceOutDown", BounceOutDown::new);
+        register("BounceOutLeft", BounceOutLeft::new);
+        register("BounceOutRight", BounceOutRight::new);
+        register("BounceOutUp", BounceOutUp::new);
+        register("FadeIn", FadeIn::new);
+        register("FadeInDown", FadeInDown::new);
+        register("FadeInDownBig", FadeInDownBig::new);
+        register("FadeInLeft", FadeInLeft::new);
+        register("FadeInLeftBig", FadeInLeftBig::new);
+        register("FadeInRight", FadeInRight::new);
+        register("FadeInRightBig", FadeInRightBig::new);
+        register("FadeInUp", FadeInUp::new);
+        register("FadeInUpBig", FadeInUpBig::new);
+        register("FadeOut", FadeOut::new);
+        register("FadeOutDown", FadeOutDown::new);
+        register("FadeOutDownBig", FadeOutDownBig::new);
+        register("FadeOutLeft", FadeOutLeft::new);
+        register("FadeOutLeftBig", FadeOutLeftBig::new);
+        register("FadeOutRight", FadeOutRight::new);
+        register("FadeOutRightBig", FadeOutRightBig::new);
+        register("FadeOutUp", FadeOutUp::new);
+        register("FadeOutUpBig", FadeOutUpBig::new);
+        register("Flash", Flash::new);
+        register("Flip", Flip::new);
+        register("FlipInX", FlipInX::new);
+        register("FlipInY", FlipInY::new);
+        register("FlipOutX", FlipOutX::new);
+        register("FlipOutY", FlipOutY::new);
+        register("Hinge", Hinge::new);
+        register("JackInTheBox", JackInTheBox::new);
+        register("Jello", Jello::new);
+        register("LightSpeedIn", LightSpeedIn::new);
+        register("LightSpeedOut", LightSpeedOut::new);
+        register("Pulse", Pulse::new);
+        register("RollIn", RollIn::new);
+        register("RollOut", RollOut::new);
+        register("RotateIn", RotateIn::new);
+        register("RotateInDownLeft", RotateInDownLeft::new);
+        register("RotateInDownRight", RotateInDownRight::new);
+        register("RotateInUpLeft", RotateInUpLeft::new);
+        register("RotateInUpRight", RotateInUpRight::new);
+        register("RotateOut", RotateOut::new);
+        register("RotateOutDownLeft", RotateOutDownLeft::new);
+        register("RotateOutDownRight", RotateOutDownRight::new);
+        register("RotateOutUpLeft", RotateOutUpLeft::new);
+        register("RotateOutUpRight", RotateOutUpRight::new);
+        register("RubberBand", RubberBand::new);
+        register("Shake", Shake::new);
+        register("SlideInDown", SlideInDown::new);
+        register("SlideInLeft", SlideInLeft::new);
+        register("SlideInRight", SlideInRight::new);
+        register("SlideInUp", SlideInUp::new);
+        register("SlideOutDown", SlideOutDown::new);
+        register("SlideOutLeft", SlideOutLeft::new);
+        register("SlideOutRight", SlideOutRight::new);
+        register("SlideOutUp", SlideOutUp::new);
+        register("Swing", Swing::new);
+        register("Tada", Tada::new);
+        register("Wobble", Wobble::new);
+        register("ZoomIn", ZoomIn::new);
+        register("ZoomInDown", ZoomInDown::new);
+        register("ZoomInLeft", ZoomInLeft::new);
+        register("ZoomInRight", ZoomInRight::new);
+        register("ZoomInUp", ZoomInUp::new);
+        register("ZoomOut", ZoomOut::new);
+        register("ZoomOutDown", ZoomOutDown::new);
+        register("ZoomOutLeft", ZoomOutLeft::new);
+        register("ZoomOutRight", ZoomOutRight::new);
+        register("ZoomOutUp", ZoomOutUp::new);
+
+        register("None", None::new);
+        register("CircleClipIn", CircleClipIn::new);
+        register("CircleClipOut", CircleClipOut::new);
+        register("RectangleClipIn", RectangleClipIn::new);
+        register("RectangleClipOut", RectangleClipOut::new);
+
+        for (AnimationFactory factory : ServiceLoader.load(AnimationFactory.class)) {
+            ANIMATIONS.putAll(factory.getAnimations());
+        }
+    }
+
+    private AnimationRegistry() {
+    }
+
+    /**
+     * Registers an animation, replacing the one registered with the same name, if any.
+     * @param name (case-sensitive) name of the animation
+     * @param supplier supplier of new instances of the animation
+     */
+    public static void register(String name, Supplier<? extends AnimationFX> supplier) {
+        ANIMATIONS.put(name, supplier);
+    }
+
+    /**
+     * @param name (case-sensitive) name of the animation
+     * @return supplier of new instances of the animation
+     * @throws IllegalArgumentException if the name does not match any animation
+     */
+    public static Supplier<? extends AnimationFX> getFactory(String name) {
+        final Supplier<? extends AnimationFX> supplier = ANIMATIONS.get(name);
+        if (supplier != null) {
+            return supplier;
+        }
+
+        // Slow path: the type is resolved once and cached
+        final Supplier<? extends AnimationFX> resolved = resolve(name);
+        ANIMATIONS.putIfAbsent(name, resolved);
+        return resolved;
+    }
+
+    /**
+     * @param name (case-sensitive) name of the animation
+     * @return a new instance of the animation
+     * @throws IllegalArgumentException if the name does not match any animation
+     */
+    public static AnimationFX create(String name) {
+        return getFactory(name).get();
+    }
+
+    /**
+     * Looks up an animation that was not registered, by class name.
+     * @param name simple name of the class of the animation
+     * @return supplier of new instances of the animation
+     * @throws IllegalArgumentException if no matching animation is found
+     */
+    private static Supplier<? extends AnimationFX> resolve(String name) {
+        final Class<? extends AnimationFX> type;
+        try {
+            type = ReflectionUtils.findClassInPackages(name, PACKAGES).asSubclass(AnimationFX.class);
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IllegalArgumentException(e);
+        }
+
+        return () -> {
+            try {
+                return type.getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalArgumentException(e);
+            }
+        };
+    }
+}
@@ -0,0 +1,286 @@
+package eu.iamgio.animated.transition;
+
+import eu.iamgio.animated.binding.AnimationSettings;
+import eu.iamgio.animated.binding.property.animation.AnimationScheduler;
+import javafx.beans.property.ObjectProperty;
+import javafx.css.StyleOrigin;
+import javafx.css.StyleableProperty;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.control.Labeled;
+import javafx.scene.layout.Background;
+import javafx.scene.layout.BackgroundFill;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.Paint;
+import javafx.scene.shape.Shape;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Snapshot-free theme transition: the CSS-driven paints of the nodes of a scene graph
+ * (background colors of regions, fill and stroke of shapes and text, text fill of labeled controls)
+ * are recorded before a theme change, compared to the ones of the new theme,
+ * and the ones that changed are interpolated by the shared {@link AnimationScheduler}.
+ * <p>
+ * Only colors are interpolated: other paints (e.g. gradients and images) are switched at once.
+ * Animated values are applied as author styles, so that further stylesheet changes still override them.
+ */
+class ThemeCrossfade extends AnimationScheduler.Target {
+
+    // Paints of the nodes before the theme change
+    private final Map<Node, Paints> captured = new IdentityHashMap<>();
+
+    // Properties that are being animated
+    private final List<Change<?>> changes = new ArrayList<>();
+
+    /**
+     * Records the current paints of a node and of all its descendants.
+     * The new theme must not have been applied yet.
+     * @param root root of the scene graph
+     */
+    void capture(Parent root) {
+        captured.clear();
+        capture((Node) root);
+    }
+
+    private void capture(Node node) {
+        captured.put(node, new Paints(node));
+        if (node instanceof Parent) {
+            for (Node child : ((Parent) node).getChildrenUnmodifiable()) {
+                capture(child);
+            }
+        }
+    }
+
+    /**
+     * Drops the recorded paints without playing the transition.
+     */
+    void discard() {
+        captured.clear();
+    }
+
+    /**
+     * Applies the new theme, brings the paints that changed back to their recorded value
+     * and animates them towards the new one.
+     * @param root root of the scene graph
+     * @param settings duration and curve of the transition
+     */
+    void play(Parent root, AnimationSettings settings) {
+        AnimationScheduler.getInstance().stop(this);
+        changes.clear();
+
+        root.applyCss();
+
+        captured.forEach((node, from) -> {
+            // Nodes removed in the meantime
+            if (node.getScene() != root.getScene()) {
+                return;
+            }
+            from.diff(node, new Paints(node), changes);
+        });
+        captured.clear();
+
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        update(0.0);
+        AnimationScheduler.getInstance().play(this, 0, 1, settings.getDuration(), settings.getCurve(), settings.getCurveResolution());
+    }
+
+    @Override
+    protected void update(Object value) {
+        update(((Number) value).doubleValue());
+    }
+
+    @Override
+    protected void update(double fraction) {
+        for (Change<?> change : changes) {
+            change.apply(fraction);
+        }
+    }
+
+    @Override
+    protected void finished() {
+        update(1.0);
+        changes.clear();
+    }
+
+    /**
+     * CSS-driven paints of a node.
+     */
+    private static class Paints {
+
+        private final Background background;
+        private final Paint fill;
+        private final Paint stroke;
+        private final Paint textFill;
+
+        Paints(Node node) {
+            this.background = node instanceof Region ? ((Region) node).getBackground() : null;
+            this.fill = node instanceof Shape ? ((Shape) node).getFill() : null;
+            this.stroke = node instanceof Shape ? ((Shape) node).getStroke() : null;
+            this.textFill = node instanceof Labeled ? ((Labeled) node).getTextFill() : null;
+        }
+
+        /**
+         * Collects the changes from these paints to the new ones of the same node.
+         * @param node owner of the paints
+         * @param to new paints
+         * @param changes list to add the changes to
+         */
+        void diff(Node node, Paints to, List<Change<?>> changes) {
+            if (node instanceof Region && !equal(background, to.background)) {
+                changes.add(new BackgroundChange(((Region) node).backgroundProperty(), background, to.background));
+            }
+            if (node instanceof Shape) {
+                addPaintChange(((Shape) node).fillProperty(), fill, to.fill, changes);
+                addPaintChange(((Shape) node).strokeProperty(), stroke, to.stroke, changes);
+            }
+            if (node instanceof Labeled) {
+                addPaintChange(((Labeled) node).textFillProperty(), textFill, to.textFill, changes);
+            }
+        }
+
+        private static void addPaintChange(ObjectProperty<Paint> property, Paint from, Paint to, List<Change<?>> changes) {
+            if (!equal(from, to)) {
+                changes.add(new PaintChange(property, from, to));
+            }
+        }
+
+        private static boolean equal(Object a, Object b) {
+            return a == null ? b == null : a.equals(b);
+        }
+    }
+
+    /**
+     * A property whose value is animated from the old theme to the new one.
+     * @param <T> type of the value
+     */
+    private static abstract class Change<T> {
+
+        private final ObjectProperty<T> property;
+        final T from;
+        final T to;
+
+        Change(ObjectProperty<T> property, T from, T to) {
+            this.property = property;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * @param fraction progress of the transition, from 0 to 1
+         * @return value of the property at the given progress
+         */
+        abstract T interpolate(double fraction);
+
+        /**
+         * Applies the value at the given progress as an author style.
+         * @param fraction progress of the transition, from 0 to 1
+         */
+        @SuppressWarnings("unchecked")
+        void apply(double fraction) {
+            final T value = fraction >= 1 ? to : interpolate(fraction);
+            if (property instanceof StyleableProperty) {
+                ((StyleableProperty<T>) property).applyStyle(StyleOrigin.AUTHOR, value);
+            } else {
+                property.set(value);
+            }
+        }
+    }
+
+    /**
+     * A paint that is interpolated if it is a color, or switched at once otherwise.
+     */
+    private static class PaintChange extends Change<Paint> {
+
+        PaintChange(ObjectProperty<Paint> property, Paint from, Paint to) {
+            super(property, from, to);
+        }
+
+        @Override
+        Paint interpolate(double fraction) {
+            return interpolateColor(from, to, fraction);
+        }
+    }
+
+    /**
+     * A background whose color fills are interpolated, if the old and the new one have the same shape,
+     * or switched at once otherwise.
+     */
+    private static class BackgroundChange extends Change<Background> {
+
+        BackgroundChange(ObjectProperty<Background> property, Background from, Background to) {
+            super(property, from, to);
+        }
+
+        @Override
+        Background interpolate(double fraction) {
+            final List<BackgroundFill> fromFills = from != null ? from.getFills() : null;
+            final List<BackgroundFill> toFills = to != null ? to.getFills() : null;
+
+            // A missing background fades in or out
+            if (fromFills == null || fromFills.isEmpty()) {
+                return to == null || !to.getImages().isEmpty() ? to : fade(toFills, fraction);
+            }
+            if (toFills == null || toFills.isEmpty()) {
+                return !from.getImages().isEmpty() ? to : fade(fromFills, 1 - fraction);
+            }
+            if (fromFills.size() != toFills.size() || !from.getImages().isEmpty() || !to.getImages().isEmpty()) {
+                return to;
+            }
+
+            final BackgroundFill[] fills = new BackgroundFill[toFills.size()];
+            for (int i = 0; i < fills.length; i++) {
+                final BackgroundFill toFill = toFills.get(i);
+                fills[i] = new BackgroundFill(
+                        interpolateColor(fromFills.get(i).getFill(), toFill.getFill(), fraction),
+                        toFill.getRadii(), toFill.getInsets()
+                );
+            }
+            return new Background(fills);
+        }
+
+        /**
+         * @param fills fills of a background
+         * @param opacity opacity multiplier of the color fills
+         * @return the background with the given fills, whose colors are made transparent by the given amount
+         */
+        private static Background fade(List<BackgroundFill> fills, double opacity) {
+            final BackgroundFill[] faded = new BackgroundFill[fills.size()];
+            for (int i = 0; i < faded.length; i++) {
+                final BackgroundFill fill = fills.get(i);
+                final Paint paint = fill.getFill() instanceof Color
+                        ? ((Color) fill.getFill()).deriveColor(0, 1, 1, opacity)
+                        : fill.getFill();
+                faded[i] = new BackgroundFill(paint, fill.getRadii(), fill.getInsets());
+            }
+            return new Background(faded);
+        }
+    }
+
+    /**
+     * @param from start paint
+     * @param to end paint
+     * @param fraction progress, from 0 to 1
+     * @return the interpolated color if both paints are colors, or the end paint otherwise.
+     *         A missing paint is considered a transparent version of the other one
+     */
+    private static Paint interpolateColor(Paint from, Paint to, double fraction) {
+        if (from == null && to instanceof Color) {
+            from = ((Color) to).deriveColor(0, 1, 1, 0);
+        }
+        if (to == null && from instanceof Color) {
+            return ((Color) from).deriveColor(0, 1, 1, 1 - fraction);
+        }
+        if (from instanceof Color && to instanceof Color) {
+            return ((Color) from).interpolate((Color) to, fraction);
+        }
+        return to;
+    }
+}
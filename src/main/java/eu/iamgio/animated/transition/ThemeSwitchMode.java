@@ -0,0 +1,24 @@
+package eu.iamgio.animated.transition;
+
+/**
+ * Defines how an {@link AnimatedThemeSwitcher} transitions from a theme to another.
+ * @author Giorgio Garofalo
+ * @see AnimatedThemeSwitcher#setMode(ThemeSwitchMode)
+ */
+public enum ThemeSwitchMode {
+
+    /**
+     * An image of the scene with the old theme applied is put on top of it and disappears via the exit animation.
+     * Any visual difference is transitioned, at the cost of a snapshot of the whole scene.
+     */
+    SNAPSHOT,
+
+    /**
+     * The colors driven by CSS (backgrounds, fills, strokes and text fills) that differ between the old and the new theme
+     * are interpolated in place, via the crossfade settings. No snapshot is taken, hence no image as large as the scene
+     * is rendered and allocated, and each frame only updates the changed properties. Recording the old theme
+     * still costs an additional CSS pass and a visit of every node, once per transition.
+     * Other differences (e.g. sizes or gradients) are applied at once.
+     */
+    CROSSFADE
+}
@@ -51,10 +51,70 @@ public interface AnimatedContainer extends Pausable, EntranceAndExitAnimationCom
     }
 
     /**
-     * Registers the handler.
+     * @return policy that limits the entrance and exit animations played by bulk changes,
+     *         or <tt>null</tt> if this container does not support animation policies,
+     *         which is the case of implementations that do not override this method
+     */
+    default ObjectProperty<ContainerAnimationPolicy> animationPolicyProperty() {
+        return null;
+    }
+
+    /**
+     * @return policy that limits the entrance and exit animations played by bulk changes. Defaults to no limit
+     */
+    default ContainerAnimationPolicy getAnimationPolicy() {
+        final ObjectProperty<ContainerAnimationPolicy> property = animationPolicyProperty();
+        return property != null ? property.get() : null;
+    }
+
+    /**
+     * Changes the policy that limits the entrance and exit animations played by bulk changes.
+     * @param policy animation policy to set
+     * @throws UnsupportedOperationException if this container does not support animation policies
+     */
+    default void setAnimationPolicy(ContainerAnimationPolicy policy) {
+        final ObjectProperty<ContainerAnimationPolicy> property = animationPolicyProperty();
+        if (property == null) {
+            throw new UnsupportedOperationException("This container does not support animation policies.");
+        }
+        property.set(policy);
+    }
+
+    /**
+     * @return staggering of the entrance animations of nodes added at once,
+     *         or <tt>null</tt> if this container does not support staggering,
+     *         which is the case of implementations that do not override this method
+     */
+    default ObjectProperty<ContainerStagger> staggerProperty() {
+        return null;
+    }
+
+    /**
+     * @return staggering of the entrance animations of nodes added at once. Defaults to no staggering
+     */
+    default ContainerStagger getStagger() {
+        final ObjectProperty<ContainerStagger> property = staggerProperty();
+        return property != null ? property.get() : null;
+    }
+
+    /**
+     * Changes the staggering of the entrance animations of nodes added at once.
+     * @param stagger stagger to set
+     * @throws UnsupportedOperationException if this container does not support staggering
+     */
+    default void setStagger(ContainerStagger stagger) {
+        final ObjectProperty<ContainerStagger> property = staggerProperty();
+        if (property == null) {
+            throw new UnsupportedOperationException("This container does not support staggering.");
+        }
+        property.set(stagger);
+    }
+
+    /**
+     * Registers a new handler, which keeps track of the children of this container.
      */
     default void register() {
-        AnimatedContainerHandler.register(this);
+        new AnimatedContainerHandler(this).register();
     }
 
     enum Direction {
@@ -1,45 +1,113 @@
 package eu.iamgio.animated.transition.container;
 
-import eu.iamgio.animated.common.Curve;
 import eu.iamgio.animated.transition.Animation;
+import javafx.animation.Interpolator;
 import javafx.animation.KeyFrame;
 import javafx.animation.KeyValue;
 import javafx.animation.Timeline;
 import javafx.application.Platform;
-import javafx.beans.property.DoubleProperty;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
 import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
+import javafx.geometry.BoundingBox;
 import javafx.geometry.Bounds;
+import javafx.geometry.Point2D;
 import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
 import javafx.util.Duration;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.WeakHashMap;
 
 /**
- * Utility class that handles {@link AnimatedContainer}'s features.
+ * Handles the features of an {@link AnimatedContainer}. Each container has its own handler.
+ * <p>
+ * Children are relocated via the FLIP technique (First, Last, Invert, Play): the position of each child is recorded
+ * before the first change of a pulse, the container is laid out once after the last one,
+ * and each child is translated back to where it was and animated towards its new position by a single timeline.
+ * Hence insertions, removals and permutations (e.g. <tt>sort</tt> or <tt>setAll</tt>) are handled alike.
+ * <p>
+ * Entrance and exit animations are limited by the {@link ContainerAnimationPolicy} of the container:
+ * nodes that are not animated are added or removed immediately.
+ * If the container has a {@link ContainerStagger}, entrance animations are queued and started across several pulses.
  */
 class AnimatedContainerHandler {
 
-    // Nodes whose animation should be temporarily skipped.
-    private static final Set<Node> skipped = new HashSet<>();
+    // Duration of an animation that has not been played yet, hence has no timeline, which is the one of most AnimateFX animations
+    static final Duration DEFAULT_ANIMATION_DURATION = Duration.seconds(1);
+
+    private final AnimatedContainer container;
+
+    // Nodes whose animation should be temporarily skipped, because they are being re-added or removed by the handler itself.
+    // Nodes do not override equals and hashCode, hence this is a weak identity set:
+    // a detached node is never kept alive by its container.
+    private final Set<Node> skipped = Collections.newSetFromMap(new WeakHashMap<>());
+
+    // Changes that have not been animated yet. They are collected during a pulse and handled all at once
+    private final List<Node> pendingEntering = new ArrayList<>();
+    private final List<Removal> pendingRemovals = new ArrayList<>();
+    private final Set<Node> pendingExiting = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Set<Node> pendingMoved = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    // Entrance animations started by the pending changes
+    private final List<javafx.animation.Animation> pendingEntrances = new ArrayList<>();
+
+    // Nodes waiting for their entrance animation
+    private final EntranceQueue entranceQueue;
+
+    // Amount of nodes added or removed by the pending changes
+    private int batchSize;
+
+    // Whether the pending changes exceeded the batch size allowed by the policy, hence are not animated
+    private boolean degraded;
+
+    // Amount of entrance and exit animations that are running
+    private int running;
+
+    // Positions of the children before the pending changes
+    private final Map<Node, Point2D> firstPositions = new IdentityHashMap<>();
+
+    // Whether the pending changes are going to be handled
+    private boolean relocationRequested;
+
+    // Timeline that is relocating the children
+    private Timeline relocation;
+
+    // Translation the children that are being relocated had before the relocation, which they are animated back to
+    private final Map<Node, Point2D> baseTranslations = new IdentityHashMap<>();
 
     /**
-     * Registers the listener.
+     * Instantiates a handler.
      * @param container container to animate
      */
-    static void register(AnimatedContainer container) {
+    AnimatedContainerHandler(AnimatedContainer container) {
+        this.container = container;
+        this.entranceQueue = new EntranceQueue(container, this::playIn);
+    }
+
+    /**
+     * Registers the listener.
+     */
+    void register() {
         container.getChildren().addListener((ListChangeListener<? super Node>) change -> {
             while(!container.isPaused() && change.next()) {
-                // Animate inserted nodes
-                if(container.getIn().getAnimationFX() != null) {
-                    playIn(change, container);
+                if(change.wasPermutated()) {
+                    requestRelocation();
                 }
-                // Animate removed nodes
+                // Animate removed nodes. Handled first, so that nodes that were just moved can be told apart
                 if(container.getOut().getAnimationFX() != null) {
-                    playOut(change, container);
+                    playOut(change);
+                }
+                // Animate inserted nodes
+                if(container.getIn().getAnimationFX() != null) {
+                    playIn(change);
                 }
             }
         });
@@ -48,116 +116,485 @@ class AnimatedContainerHandler {
     /**
      * Plays the entrance animation for each added node.
      * @param change change that affected the children
-     * @param container animated container to handle
      */
-    private static void playIn(ListChangeListener.Change<? extends Node> change, AnimatedContainer container) {
+    private void playIn(ListChangeListener.Change<? extends Node> change) {
+        final ContainerAnimationPolicy policy = container.getAnimationPolicy();
+        final boolean onlyVisible = policy != null && policy.isAnimateOnlyVisible();
+
+        // Added nodes are not laid out yet: they are going to follow each other from where their neighbour is
+        Point2D origin = onlyVisible ? getInsertionOrigin(change.getFrom(), change.getTo()) : null;
+
         for(Node child : change.getAddedSubList()) {
-            if(skipped.contains(child)) {
-                skipped.remove(child);
+            Bounds bounds = null;
+            if(onlyVisible) {
+                bounds = new BoundingBox(origin.getX(), origin.getY(), child.prefWidth(-1), child.prefHeight(-1));
+                origin = container.getDirection() == AnimatedContainer.Direction.VERTICAL
+                        ? origin.add(0, bounds.getHeight() + container.getSpacing())
+                        : origin.add(bounds.getWidth() + container.getSpacing(), 0);
+            }
+
+            if(skipped.remove(child)) {
                 continue;
             }
 
-            container.getIn().playIn(child, null);
-            Platform.runLater(() -> relocate(
-                    container,
-                    container.getIn(),
-                    change.getFrom(),
-                    false
-            ));
+            // The node was removed earlier in this pulse: it is moved rather than added
+            if(pendingExiting.remove(child) || pendingMoved.contains(child)) {
+                continue;
+            }
+
+            if(shouldAnimate(bounds) && !isCapped(entranceQueue.size())) {
+                final ContainerStagger stagger = container.getStagger();
+                if(stagger != null && stagger.isEnabled() && child.isVisible()) {
+                    entranceQueue.add(child);
+                } else {
+                    pendingEntrances.add(playIn(child));
+                }
+            }
+
+            pendingEntering.add(child);
+            requestRelocation();
         }
     }
 
+    /**
+     * Plays the entrance animation of a node.
+     * @param child node to animate
+     * @return the entrance animation
+     */
+    private Timeline playIn(Node child) {
+        final Timeline timeline = container.getIn().playInAndGet(child, null).getTimeline();
+        track(timeline);
+        return timeline;
+    }
+
     /**
      * Plays the exit animation for each removed node.
+     * The nodes are added back and animated along with the other changes of the same pulse.
      * @param change change that affected the children
-     * @param container animated container to handle
      */
-    private static void playOut(ListChangeListener.Change<? extends Node> change, AnimatedContainer container) {
+    private void playOut(ListChangeListener.Change<? extends Node> change) {
+        final List<Node> removed = new ArrayList<>();
+        boolean changed = false;
+
         for (Node child : change.getRemoved()) {
-            if (skipped.contains(child)) {
-                skipped.remove(child);
+            if (skipped.remove(child)) {
+                continue;
+            }
+
+            // The layout has not changed yet
+            recordPosition(child);
+
+            // The node was removed and added back by the same change (e.g. setAll): it is moved rather than removed
+            if (child.getParent() == container) {
+                pendingMoved.add(child);
+                changed = true;
+                continue;
+            }
+
+            // The node is removed right away. A node that was waiting for its entrance animation never showed up
+            if (entranceQueue.remove(child) || !shouldAnimate(child.getBoundsInParent())) {
+                changed = true;
                 continue;
             }
 
             skipped.add(child);
-            Platform.runLater(() -> {
-                container.getChildren().add(change.getFrom(), child);
-                skipped.add(child);
-                container.getOut().playOut(child, container.getChildren());
-                relocate(
-                        container,
-                        container.getOut(),
-                        change.getFrom(),
-                        true
-                );
-            });
+            pendingExiting.add(child);
+            removed.add(child);
+        }
+
+        if (!removed.isEmpty()) {
+            pendingRemovals.add(new Removal(change.getFrom(), removed));
+        }
+        if (changed || !removed.isEmpty()) {
+            requestRelocation();
+        }
+    }
+
+    /**
+     * Schedules the handling of the pending changes, unless it was already scheduled.
+     * The positions of the children are recorded as soon as the first change comes.
+     */
+    private void requestRelocation() {
+        if (!relocationRequested) {
+            relocationRequested = true;
+            container.getChildren().forEach(this::recordPosition);
+            Platform.runLater(this::flush);
+        }
+    }
+
+    /**
+     * Records the current position of a node, unless it was already recorded for the pending changes.
+     * @param node node whose position should be recorded
+     */
+    private void recordPosition(Node node) {
+        if (!firstPositions.containsKey(node)) {
+            firstPositions.put(node, new Point2D(
+                    node.getLayoutX() + node.getTranslateX(),
+                    node.getLayoutY() + node.getTranslateY()
+            ));
         }
     }
 
     /**
-     * Updates the node's translate X or Y depending on the direction of the container.
-     * @param node target node
-     * @param direction direction of the container
-     * @param translate new translation value
+     * Adds back the removed nodes, plays their exit animation
+     * and relocates the other nodes to their new positions, all at once.
      */
-    private static void setTranslate(Node node, AnimatedContainer.Direction direction, double translate) {
-        switch(direction) {
-            case HORIZONTAL:
-                node.setTranslateX(translate);
-                break;
-            case VERTICAL:
-                node.setTranslateY(translate);
-                break;
+    private void flush() {
+        relocationRequested = false;
+
+        // The pending changes are discarded even if handling them fails
+        try {
+            if (degraded) {
+                // Nodes are left where the layout puts them
+                if (relocation != null) {
+                    finish(relocation);
+                    relocation = null;
+                }
+                baseTranslations.clear();
+            } else {
+                flushPendingChanges();
+            }
+        } finally {
+            clearPendingChanges();
         }
     }
 
     /**
-     * Animates next nodes' position in order to have a smooth animation.
-     * @param container animated container to handle
-     * @param animation last animation to relocate from
-     * @param index start index
-     * @param reverse whether the animation should be reversed (exit) or not (entrance)
+     * Handles the pending changes.
      */
-    private static void relocate(AnimatedContainer container, Animation animation, int index, boolean reverse) {
+    private void flushPendingChanges() {
         final ObservableList<Node> children = container.getChildren();
-        final double spacing = container.getSpacing();
-        final AnimatedContainer.Direction direction = container.getDirection();
-        final Curve relocationCurve = container.getRelocationCurve();
 
-        final Timeline timeline = new Timeline();
+        // Exiting nodes, mapped to whether they were managed
+        final Map<Node, Boolean> exiting = new IdentityHashMap<>();
+
+        // Removals are undone backwards, so that each index refers to the same list it was taken from
+        for (int i = pendingRemovals.size() - 1; i >= 0; i--) {
+            final Removal removal = pendingRemovals.get(i);
+            final List<Node> nodes = new ArrayList<>();
+
+            for (Node child : removal.nodes) {
+                // The node was added back in the meantime
+                if (!pendingExiting.contains(child)) {
+                    continue;
+                }
+                if (child.getParent() != null || isCapped(exiting.size())) {
+                    skipped.remove(child);
+                    continue;
+                }
 
-        // Affected nodes
-        final List<Node> toReset = new ArrayList<>();
+                // Exiting nodes keep their position and take no room in the layout of the container
+                exiting.put(child, child.isManaged());
+                child.setManaged(false);
+                nodes.add(child);
+            }
 
-        // Iterate next nodes
-        for (int i = index + 1; i < children.size(); i++) {
-            // Target node
-            final Node next = children.get(i);
-            // Bounds of the affected node
-            final Bounds affectedBounds = children.get(index).getBoundsInLocal();
+            // Other nodes may have been removed in the meantime
+            children.addAll(Math.min(removal.index, children.size()), nodes);
+        }
 
-            // Determine start (or end if reverse is true) value, based off direction and spacing
-            final double start = -((direction == AnimatedContainer.Direction.HORIZONTAL ? affectedBounds.getWidth() : affectedBounds.getHeight()) + spacing);
-            setTranslate(next, direction, reverse ? 0 : start);
+        exiting.forEach((child, managed) -> {
+            skipped.add(child);
+            final Timeline timeline = container.getOut().playOutAndGet(child, children).getTimeline();
+            removeOnStop(child, timeline, managed);
+            track(timeline);
+        });
 
-            // Animate translate X/Y
-            final Duration duration = animation.getAnimationFX().getTimeline().getCycleDuration().divide(animation.getSpeed());
-            final DoubleProperty targetProperty = direction == AnimatedContainer.Direction.HORIZONTAL ? next.translateXProperty() : next.translateYProperty();
-            timeline.getKeyFrames().add(
-                    new KeyFrame(duration, new KeyValue(targetProperty, reverse ? start : 0, relocationCurve.toInterpolator()))
-            );
+        final Set<Node> entering = Collections.newSetFromMap(new IdentityHashMap<>());
+        entering.addAll(pendingEntering);
+
+        relocate(entering, exiting.keySet());
+    }
+
+    /**
+     * Discards the pending changes once they are handled.
+     */
+    private void clearPendingChanges() {
+        pendingEntering.clear();
+        pendingEntrances.clear();
+        pendingRemovals.clear();
+        pendingExiting.clear();
+        pendingMoved.clear();
+        firstPositions.clear();
+        batchSize = 0;
+        degraded = false;
+    }
 
-            // This node position will be reset after the animation is complete
-            toReset.add(next);
+    /**
+     * Counts a node added or removed by the pending changes and tells whether it should be animated,
+     * according to the policy of the container.
+     * @param bounds bounds of the node within the container, only required if the policy animates only visible nodes
+     * @return whether the node should be animated
+     */
+    private boolean shouldAnimate(Bounds bounds) {
+        final ContainerAnimationPolicy policy = container.getAnimationPolicy();
+        if (policy == null) {
+            return true;
         }
+        if (!degraded && policy.getMaxBatchSize() > 0 && ++batchSize > policy.getMaxBatchSize()) {
+            degrade();
+        }
+        return !degraded && (!policy.isAnimateOnlyVisible() || isInViewport(bounds));
+    }
 
-        // Reset positions
-        timeline.setOnFinished(e -> {
-            for (Node node : toReset) {
-                setTranslate(node, direction, 0);
+    /**
+     * @param starting amount of animations that are about to start
+     * @return whether no more animations can be started, according to the policy of the container
+     */
+    private boolean isCapped(int starting) {
+        final ContainerAnimationPolicy policy = container.getAnimationPolicy();
+        return policy != null && policy.getMaxConcurrentAnimations() > 0
+                && running + starting >= policy.getMaxConcurrentAnimations();
+    }
+
+    /**
+     * Gives up animating the pending changes, because they are too many:
+     * the entrance animations they started are brought to their end, the queued ones are dropped
+     * and the removed nodes are not added back.
+     */
+    private void degrade() {
+        degraded = true;
+        pendingEntrances.forEach(AnimatedContainerHandler::finish);
+        pendingEntrances.clear();
+        entranceQueue.clear();
+        pendingExiting.forEach(skipped::remove);
+        pendingExiting.clear();
+        pendingRemovals.clear();
+    }
+
+    /**
+     * Keeps count of an entrance or exit animation until it stops.
+     * @param timeline animation that started
+     */
+    private void track(Timeline timeline) {
+        running++;
+        timeline.statusProperty().addListener(new ChangeListener<javafx.animation.Animation.Status>() {
+            @Override
+            public void changed(ObservableValue<? extends javafx.animation.Animation.Status> observable,
+                                javafx.animation.Animation.Status oldStatus, javafx.animation.Animation.Status status) {
+                if (status == javafx.animation.Animation.Status.STOPPED) {
+                    timeline.statusProperty().removeListener(this);
+                    running--;
+                }
+            }
+        });
+    }
+
+    /**
+     * @param from index of the first added node
+     * @param to index after the last added node
+     * @return position, within the container, the first added node is going to take
+     */
+    private Point2D getInsertionOrigin(int from, int to) {
+        final ObservableList<Node> children = container.getChildren();
+        if (to < children.size()) {
+            final Bounds next = children.get(to).getBoundsInParent();
+            return new Point2D(next.getMinX(), next.getMinY());
+        }
+        if (from > 0) {
+            final Bounds previous = children.get(from - 1).getBoundsInParent();
+            return container.getDirection() == AnimatedContainer.Direction.VERTICAL
+                    ? new Point2D(previous.getMinX(), previous.getMaxY() + container.getSpacing())
+                    : new Point2D(previous.getMaxX() + container.getSpacing(), previous.getMinY());
+        }
+        return Point2D.ZERO;
+    }
+
+    /**
+     * @param bounds bounds within the container
+     * @return whether the bounds are within the visible area of the scene, i.e. not scrolled or clipped away
+     */
+    private boolean isInViewport(Bounds bounds) {
+        if (bounds == null || !(container instanceof Node)) {
+            return true;
+        }
+
+        final Node node = (Node) container;
+        final Scene scene = node.getScene();
+        if (scene == null) {
+            return false;
+        }
+
+        final Bounds sceneBounds = node.localToScene(bounds);
+        for (Node ancestor = node; ancestor != null; ancestor = ancestor.getParent()) {
+            if (!ancestor.isVisible()) {
+                return false;
+            }
+            // The bounds of a clip are relative to the node it clips
+            if (ancestor.getClip() != null && !ancestor.localToScene(ancestor.getClip().getBoundsInParent()).intersects(sceneBounds)) {
+                return false;
+            }
+        }
+        return sceneBounds.intersects(0, 0, scene.getWidth(), scene.getHeight());
+    }
+
+    /**
+     * Brings an animation to its end and stops it.
+     * @param animation animation to finish
+     */
+    private static void finish(javafx.animation.Animation animation) {
+        animation.jumpTo(animation.getCycleDuration());
+        animation.stop();
+    }
+
+    /**
+     * Removes a node that is playing its exit animation as soon as the animation stops,
+     * either because it finished or because it was cancelled, and releases it.
+     * @param child node to remove
+     * @param timeline exit animation of the node
+     * @param managed whether the node was managed before playing its exit animation
+     */
+    private void removeOnStop(Node child, Timeline timeline, boolean managed) {
+        timeline.statusProperty().addListener(new ChangeListener<javafx.animation.Animation.Status>() {
+            @Override
+            public void changed(ObservableValue<? extends javafx.animation.Animation.Status> observable,
+                                javafx.animation.Animation.Status oldStatus, javafx.animation.Animation.Status status) {
+                if (status != javafx.animation.Animation.Status.STOPPED) {
+                    return;
+                }
+                timeline.statusProperty().removeListener(this);
+
+                // The node was not removed by someone else in the meantime
+                if (skipped.contains(child)) {
+                    // The removal is skipped by the listener, unless the container is paused
+                    container.getChildren().remove(child);
+                    skipped.remove(child);
+                }
+
+                child.setManaged(managed);
+            }
+        });
+    }
+
+    /**
+     * Lays out the container and animates each child, except entering and exiting ones,
+     * from the position it had before the pending changes to its new one.
+     * @param entering nodes that are playing their entrance animation
+     * @param exiting nodes that are playing their exit animation
+     */
+    private void relocate(Set<Node> entering, Set<Node> exiting) {
+        // The running relocation is interrupted: the recorded positions already account for it
+        if (relocation != null) {
+            relocation.stop();
+            relocation = null;
+        }
+
+        if (container instanceof Parent) {
+            ((Parent) container).applyCss();
+            ((Parent) container).layout();
+        }
+
+        final Interpolator interpolator = container.getRelocationCurve().toInterpolator();
+        final Timeline timeline = new Timeline();
+        final List<KeyValue> values = new ArrayList<>();
+        final Map<Node, Point2D> bases = new IdentityHashMap<>();
+
+        for (Node child : container.getChildren()) {
+            final Point2D first = firstPositions.get(child);
+            if (first == null || entering.contains(child) || exiting.contains(child)) {
+                continue;
+            }
+
+            // The translation set by the user, which the interrupted relocation may have changed
+            final Point2D base = baseTranslations.containsKey(child)
+                    ? baseTranslations.get(child)
+                    : new Point2D(child.getTranslateX(), child.getTranslateY());
+
+            // Invert: the node is moved back to where it was...
+            final double translateX = first.getX() - child.getLayoutX();
+            final double translateY = first.getY() - child.getLayoutY();
+
+            // ...and plays towards its new position. Bound translations are left alone
+            boolean relocated = false;
+            if (translateX != base.getX() && !child.translateXProperty().isBound()) {
+                child.setTranslateX(translateX);
+                values.add(new KeyValue(child.translateXProperty(), base.getX(), interpolator));
+                relocated = true;
+            }
+            if (translateY != base.getY() && !child.translateYProperty().isBound()) {
+                child.setTranslateY(translateY);
+                values.add(new KeyValue(child.translateYProperty(), base.getY(), interpolator));
+                relocated = true;
+            }
+            if (relocated) {
+                bases.put(child, base);
+            }
+        }
+
+        // Nodes that were being relocated and are not anymore are brought back to their translation
+        baseTranslations.forEach((child, base) -> {
+            if (!bases.containsKey(child)) {
+                resetTranslation(child, base);
             }
         });
+        baseTranslations.clear();
 
+        if (values.isEmpty()) {
+            return;
+        }
+
+        baseTranslations.putAll(bases);
+        timeline.getKeyFrames().add(new KeyFrame(getRelocationDuration(entering, exiting), values.toArray(new KeyValue[0])));
+        timeline.setOnFinished(e -> {
+            relocation = null;
+            baseTranslations.clear();
+        });
         timeline.playFromStart();
+        relocation = timeline;
+    }
+
+    /**
+     * @param child node whose translation should be reset, unless bound
+     * @param translation translation to set
+     */
+    private static void resetTranslation(Node child, Point2D translation) {
+        if (!child.translateXProperty().isBound()) {
+            child.setTranslateX(translation.getX());
+        }
+        if (!child.translateYProperty().isBound()) {
+            child.setTranslateY(translation.getY());
+        }
+    }
+
+    /**
+     * @param entering nodes that are playing their entrance animation
+     * @param exiting nodes that are playing their exit animation
+     * @return duration of the relocation, which lasts as long as the longest of the animations it follows
+     */
+    private Duration getRelocationDuration(Set<Node> entering, Set<Node> exiting) {
+        if (exiting.isEmpty()) {
+            return getDuration(container.getIn());
+        }
+        if (entering.isEmpty()) {
+            return getDuration(container.getOut());
+        }
+        return Duration.millis(Math.max(getDuration(container.getIn()).toMillis(), getDuration(container.getOut()).toMillis()));
+    }
+
+    /**
+     * @param animation target animation
+     * @return duration of a cycle of the animation, according to its speed.
+     *         If the animation has not been played yet, hence has no timeline, {@link #DEFAULT_ANIMATION_DURATION} is used
+     */
+    static Duration getDuration(Animation animation) {
+        final Timeline timeline = animation.getAnimationFX().getTimeline();
+        final Duration duration = timeline != null ? timeline.getCycleDuration() : DEFAULT_ANIMATION_DURATION;
+        return duration.divide(animation.getSpeed());
+    }
+
+    /**
+     * Nodes removed from the container by a single change, which are going to play their exit animation.
+     */
+    private static class Removal {
+
+        // Index the nodes were removed from
+        private final int index;
+
+        private final List<Node> nodes;
+
+        Removal(int index, List<Node> nodes) {
+            this.index = index;
+            this.nodes = nodes;
+        }
     }
 }
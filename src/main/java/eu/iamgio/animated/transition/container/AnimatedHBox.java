@@ -21,6 +21,8 @@ public class AnimatedHBox extends HBox implements AnimatedContainer {
 
     private final BooleanProperty pausedProperty = new SimpleBooleanProperty(false);
     private final ObjectProperty<Curve> relocationCurveProperty = new SimpleObjectProperty<>(Curve.EASE_IN_OUT);
+    private final ObjectProperty<ContainerAnimationPolicy> animationPolicyProperty = new SimpleObjectProperty<>(new ContainerAnimationPolicy());
+    private final ObjectProperty<ContainerStagger> staggerProperty = new SimpleObjectProperty<>(new ContainerStagger());
 
     /**
      * Instantiates an {@link AnimatedHBox}. {@link Animation} wraps an {@link AnimationFX}, allowing customization.
@@ -132,4 +134,20 @@ public class AnimatedHBox extends HBox implements AnimatedContainer {
     public ObjectProperty<Curve> relocationCurveProperty() {
         return relocationCurveProperty;
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ObjectProperty<ContainerAnimationPolicy> animationPolicyProperty() {
+        return animationPolicyProperty;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ObjectProperty<ContainerStagger> staggerProperty() {
+        return staggerProperty;
+    }
 }
@@ -0,0 +1,731 @@
+package eu.iamgio.animated.transition.container;
+
+import animatefx.animation.AnimationFX;
+import eu.iamgio.animated.common.Curve;
+import eu.iamgio.animated.common.Pausable;
+import eu.iamgio.animated.transition.Animation;
+import eu.iamgio.animated.transition.AnimationPair;
+import eu.iamgio.animated.transition.EntranceAndExitAnimationCompatible;
+import javafx.animation.KeyFrame;
+import javafx.animation.KeyValue;
+import javafx.animation.Timeline;
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleBooleanProperty;
+import javafx.beans.property.SimpleDoubleProperty;
+import javafx.beans.property.SimpleIntegerProperty;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.geometry.Orientation;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.layout.Region;
+import javafx.scene.shape.Rectangle;
+import javafx.util.Callback;
+import javafx.util.Duration;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A virtualized, vertically scrollable list whose cells are animated whenever its items are affected by a change,
+ * as it happens for the children of an {@link AnimatedVBox}.
+ * <p>
+ * Only the cells in the viewport, plus a few more above and below it (the overscan), exist in the scene graph:
+ * they are recycled from a pool as the list scrolls, hence memory and layout cost do not depend on the amount of items.
+ * All cells have the same fixed size. Like for a {@link ListView}, the content of the cells is defined by a cell factory.
+ * <p>
+ * Inserted and removed items that are within the viewport play the entrance and exit animations,
+ * while the cells that are moved by a change are relocated with the relocation curve.
+ * @param <T> type of the items
+ * @author Giorgio Garofalo
+ */
+public class AnimatedVirtualList<T> extends Region implements Pausable, EntranceAndExitAnimationCompatible {
+
+    private final ObjectProperty<Animation> in;
+    private final ObjectProperty<Animation> out;
+
+    private final BooleanProperty pausedProperty = new SimpleBooleanProperty(false);
+    private final ObjectProperty<Curve> relocationCurveProperty = new SimpleObjectProperty<>(Curve.EASE_IN_OUT);
+
+    private final ObservableList<T> items = FXCollections.observableArrayList();
+    private final ObjectProperty<Callback<AnimatedVirtualList<T>, ListCell<T>>> cellFactoryProperty = new SimpleObjectProperty<>();
+    private final DoubleProperty fixedCellSizeProperty = new SimpleDoubleProperty(24);
+    private final IntegerProperty overscanProperty = new SimpleIntegerProperty(2);
+    private final DoubleProperty scrollOffsetProperty = new SimpleDoubleProperty(0);
+
+    // Cells are bound to their items through a list view, which is never displayed.
+    // Each cell owns a slot of its items. Slots are written to the backing list, which does not notify the cells:
+    // only the cell whose slot changed is updated, instead of every cell being notified of the change
+    private final List<T> slots = new ArrayList<>();
+    private final ListView<T> listView = new ListView<>(FXCollections.observableList(slots));
+    private final Map<ListCell<T>, Integer> slotIndexes = new IdentityHashMap<>();
+
+    // Entrance or exit animations that are playing on the cells
+    private final Map<ListCell<T>, Timeline> animations = new IdentityHashMap<>();
+
+    private final ScrollBar scrollBar = new ScrollBar();
+
+    // Cells currently bound to an item, by index of the item
+    private final Map<Integer, ListCell<T>> cells = new HashMap<>();
+
+    // Unused cells, which are hidden until they are needed again
+    private final Deque<ListCell<T>> pool = new ArrayDeque<>();
+
+    // Indexes of the items that were inserted in the viewport and should play the entrance animation
+    private final Set<Integer> entering = new HashSet<>();
+
+    // Positions of the cells before the pending changes
+    private final Map<ListCell<T>, Double> firstPositions = new IdentityHashMap<>();
+
+    // Timeline that is relocating the cells, and the cells it affects
+    private Timeline relocation;
+    private final Set<ListCell<T>> relocating = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    // Cells that were released while being relocated, which are pooled once the relocation ends
+    private final List<ListCell<T>> releasedWhileRelocating = new ArrayList<>();
+
+    /**
+     * Instantiates an {@link AnimatedVirtualList}. {@link Animation} wraps an {@link AnimationFX}, allowing customization.
+     * @param animationIn non-null entrance animation
+     * @param animationOut non-null exit animation
+     */
+    public AnimatedVirtualList(Animation animationIn, Animation animationOut) {
+        this.in = new SimpleObjectProperty<>(Animation.requireNonNull(animationIn));
+        this.out = new SimpleObjectProperty<>(Animation.requireNonNull(animationOut));
+
+        getStyleClass().add("animated-virtual-list");
+
+        final Rectangle clip = new Rectangle();
+        clip.widthProperty().bind(widthProperty());
+        clip.heightProperty().bind(heightProperty());
+        setClip(clip);
+
+        scrollBar.setOrientation(Orientation.VERTICAL);
+        scrollBar.valueProperty().bindBidirectional(scrollOffsetProperty);
+        getChildren().add(scrollBar);
+
+        addEventHandler(ScrollEvent.SCROLL, e -> {
+            setScrollOffset(getScrollOffset() - e.getDeltaY());
+            e.consume();
+        });
+
+        scrollOffsetProperty.addListener(o -> requestLayout());
+        fixedCellSizeProperty.addListener(o -> requestLayout());
+        overscanProperty.addListener(o -> requestLayout());
+        cellFactoryProperty.addListener(o -> clearCells());
+
+        items.addListener(this::onItemsChanged);
+    }
+
+    /**
+     * Instantiates an {@link AnimatedVirtualList}.
+     * @param animation a pair of in and out animations
+     */
+    public AnimatedVirtualList(AnimationPair animation) {
+        this(animation.getIn(), animation.getOut());
+    }
+
+    /**
+     * Instantiates an {@link AnimatedVirtualList}.
+     * @param in entrance animation
+     * @param out exit animation
+     */
+    public AnimatedVirtualList(AnimationFX in, AnimationFX out) {
+        this(new Animation(in), new Animation(out));
+    }
+
+    /**
+     * @return items of the list
+     */
+    public ObservableList<T> getItems() {
+        return items;
+    }
+
+    /**
+     * @return factory of the cells that display the items. If its value is <tt>null</tt>, items are displayed as text
+     */
+    public ObjectProperty<Callback<AnimatedVirtualList<T>, ListCell<T>>> cellFactoryProperty() {
+        return cellFactoryProperty;
+    }
+
+    /**
+     * @return factory of the cells that display the items
+     */
+    public Callback<AnimatedVirtualList<T>, ListCell<T>> getCellFactory() {
+        return cellFactoryProperty.get();
+    }
+
+    /**
+     * @param cellFactory factory of the cells that display the items
+     */
+    public void setCellFactory(Callback<AnimatedVirtualList<T>, ListCell<T>> cellFactory) {
+        cellFactoryProperty.set(cellFactory);
+    }
+
+    /**
+     * @return height of every cell
+     */
+    public DoubleProperty fixedCellSizeProperty() {
+        return fixedCellSizeProperty;
+    }
+
+    /**
+     * @return height of every cell. Defaults to 24
+     */
+    public double getFixedCellSize() {
+        return fixedCellSizeProperty.get();
+    }
+
+    /**
+     * @param fixedCellSize positive height of every cell
+     */
+    public void setFixedCellSize(double fixedCellSize) {
+        fixedCellSizeProperty.set(fixedCellSize);
+    }
+
+    /**
+     * @return amount of cells that are kept above and below the viewport, so that they can be animated while entering it
+     */
+    public IntegerProperty overscanProperty() {
+        return overscanProperty;
+    }
+
+    /**
+     * @return amount of cells that are kept above and below the viewport. Defaults to 2
+     */
+    public int getOverscan() {
+        return overscanProperty.get();
+    }
+
+    /**
+     * @param overscan non-negative amount of cells that are kept above and below the viewport
+     */
+    public void setOverscan(int overscan) {
+        overscanProperty.set(overscan);
+    }
+
+    /**
+     * @return vertical scroll position, in pixels from the top of the first cell
+     */
+    public DoubleProperty scrollOffsetProperty() {
+        return scrollOffsetProperty;
+    }
+
+    /**
+     * @return vertical scroll position, in pixels from the top of the first cell
+     */
+    public double getScrollOffset() {
+        return scrollOffsetProperty.get();
+    }
+
+    /**
+     * @param scrollOffset vertical scroll position, in pixels from the top of the first cell.
+     *                     It is clamped so that the viewport never goes beyond the last cell
+     */
+    public void setScrollOffset(double scrollOffset) {
+        scrollOffsetProperty.set(clampScrollOffset(scrollOffset));
+    }
+
+    /**
+     * Scrolls the list so that the item at the given index is at the top of the viewport, if possible.
+     * @param index index of the item
+     */
+    public void scrollTo(int index) {
+        setScrollOffset(index * getFixedCellSize());
+    }
+
+    /**
+     * @return curve used by the animation while relocating cells after a change
+     */
+    public ObjectProperty<Curve> relocationCurveProperty() {
+        return relocationCurveProperty;
+    }
+
+    /**
+     * @return curve used by the animation while relocating cells after a change. Defaults to {@link Curve#EASE_IN_OUT}
+     */
+    public Curve getRelocationCurve() {
+        return relocationCurveProperty.get();
+    }
+
+    /**
+     * @param curve relocation curve to set
+     */
+    public void setRelocationCurve(Curve curve) {
+        relocationCurveProperty.set(curve);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ObjectProperty<Animation> animationInProperty() {
+        return this.in;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Animation getIn() {
+        // This overriden method is required for FXML compatibility.
+        return EntranceAndExitAnimationCompatible.super.getIn();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setIn(Animation in) {
+        // This overriden method is required for FXML compatibility.
+        EntranceAndExitAnimationCompatible.super.setIn(in);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ObjectProperty<Animation> animationOutProperty() {
+        return this.out;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Animation getOut() {
+        // This overriden method is required for FXML compatibility.
+        return EntranceAndExitAnimationCompatible.super.getOut();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setOut(Animation out) {
+        // This overriden method is required for FXML compatibility.
+        EntranceAndExitAnimationCompatible.super.setOut(out);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BooleanProperty pausedProperty() {
+        return pausedProperty;
+    }
+
+    /**
+     * Keeps the cells bound to their items, and animates the cells within the viewport.
+     * @param change change that affected the items
+     */
+    private void onItemsChanged(ListChangeListener.Change<? extends T> change) {
+        final boolean animate = !isPaused() && getScene() != null;
+
+        if (animate) {
+            for (ListCell<T> cell : cells.values()) {
+                firstPositions.putIfAbsent(cell, cell.getLayoutY() + cell.getTranslateY());
+            }
+        }
+
+        while (change.next()) {
+            final int from = change.getFrom();
+
+            if (change.wasPermutated()) {
+                final Map<Integer, ListCell<T>> moved = new HashMap<>();
+                final Iterator<Map.Entry<Integer, ListCell<T>>> iterator = cells.entrySet().iterator();
+                while (iterator.hasNext()) {
+                    final Map.Entry<Integer, ListCell<T>> entry = iterator.next();
+                    if (entry.getKey() >= from && entry.getKey() < change.getTo()) {
+                        moved.put(change.getPermutation(entry.getKey()), entry.getValue());
+                        iterator.remove();
+                    }
+                }
+                cells.putAll(moved);
+                continue;
+            }
+
+            if (change.wasRemoved()) {
+                final int removed = change.getRemovedSize();
+                final int to = from + removed;
+
+                // Only the live cells are visited, whatever the amount of removed items
+                final Iterator<Map.Entry<Integer, ListCell<T>>> iterator = cells.entrySet().iterator();
+                while (iterator.hasNext()) {
+                    final Map.Entry<Integer, ListCell<T>> entry = iterator.next();
+                    if (entry.getKey() >= from && entry.getKey() < to) {
+                        iterator.remove();
+                        if (animate) {
+                            playOut(entry.getValue());
+                        } else {
+                            release(entry.getValue());
+                        }
+                    }
+                }
+                entering.removeIf(index -> index >= from && index < to);
+                shift(to, -removed);
+            }
+
+            if (change.wasAdded()) {
+                final int added = change.getAddedSize();
+                shift(from, added);
+
+                if (animate) {
+                    // Only the items that end up within the viewport are animated
+                    final int first = Math.max(from, getFirstVisibleIndex());
+                    final int last = Math.min(from + added - 1, getLastVisibleIndex(items.size()));
+                    for (int i = first; i <= last; i++) {
+                        entering.add(i);
+                    }
+                }
+            }
+        }
+
+        requestLayout();
+    }
+
+    /**
+     * Shifts the indexes of the cells from the given index on.
+     * @param from first index to shift
+     * @param amount amount to shift the indexes by
+     */
+    private void shift(int from, int amount) {
+        if (amount == 0) {
+            return;
+        }
+
+        final Map<Integer, ListCell<T>> shifted = new HashMap<>();
+        final Iterator<Map.Entry<Integer, ListCell<T>>> iterator = cells.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry<Integer, ListCell<T>> entry = iterator.next();
+            if (entry.getKey() >= from) {
+                shifted.put(entry.getKey() + amount, entry.getValue());
+                iterator.remove();
+            }
+        }
+        cells.putAll(shifted);
+
+        final Set<Integer> shiftedEntering = new HashSet<>();
+        for (int index : entering) {
+            shiftedEntering.add(index >= from ? index + amount : index);
+        }
+        entering.clear();
+        entering.addAll(shiftedEntering);
+    }
+
+    /**
+     * Plays the exit animation on a cell whose item was removed, and releases it afterwards.
+     * @param cell cell to animate
+     */
+    private void playOut(ListCell<T> cell) {
+        stopAnimation(cell);
+        final Timeline timeline = getOut().playOutAndGet(cell, null).getTimeline();
+        animations.put(cell, timeline);
+        timeline.statusProperty().addListener(new ChangeListener<javafx.animation.Animation.Status>() {
+            @Override
+            public void changed(ObservableValue<? extends javafx.animation.Animation.Status> observable,
+                                javafx.animation.Animation.Status oldStatus, javafx.animation.Animation.Status status) {
+                if (status == javafx.animation.Animation.Status.STOPPED) {
+                    timeline.statusProperty().removeListener(this);
+                    // The cell was released in the meantime, which stopped this animation
+                    if (animations.get(cell) == timeline) {
+                        release(cell);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Plays the entrance animation on a cell whose item was inserted.
+     * @param cell cell to animate
+     */
+    private void playIn(ListCell<T> cell) {
+        stopAnimation(cell);
+        final Timeline timeline = getIn().playInAndGet(cell, null).getTimeline();
+        animations.put(cell, timeline);
+        timeline.statusProperty().addListener(new ChangeListener<javafx.animation.Animation.Status>() {
+            @Override
+            public void changed(ObservableValue<? extends javafx.animation.Animation.Status> observable,
+                                javafx.animation.Animation.Status oldStatus, javafx.animation.Animation.Status status) {
+                if (status == javafx.animation.Animation.Status.STOPPED) {
+                    timeline.statusProperty().removeListener(this);
+                    animations.remove(cell, timeline);
+                }
+            }
+        });
+        // The cell is laid out after the animations of this pulse: its first frame is applied right away
+        timeline.jumpTo(Duration.ZERO);
+    }
+
+    /**
+     * Stops the entrance or exit animation that is playing on a cell, if any.
+     * @param cell cell to stop the animation of
+     */
+    private void stopAnimation(ListCell<T> cell) {
+        final Timeline timeline = animations.remove(cell);
+        if (timeline != null) {
+            timeline.stop();
+        }
+    }
+
+    /**
+     * @return a cell from the pool, or a new one if the pool is empty
+     */
+    private ListCell<T> acquire() {
+        ListCell<T> cell = pool.poll();
+        if (cell == null) {
+            cell = createCell();
+            slotIndexes.put(cell, slots.size());
+            slots.add(null);
+            cell.updateListView(listView);
+            getChildren().add(getChildren().size() - 1, cell); // Below the scroll bar
+        }
+        cell.setVisible(true);
+        return cell;
+    }
+
+    /**
+     * Displays an item in a cell.
+     * @param cell target cell
+     * @param item item to display
+     */
+    private void bind(ListCell<T> cell, T item) {
+        final int slot = slotIndexes.get(cell);
+        if (cell.getIndex() != slot || slots.get(slot) != item) {
+            slots.set(slot, item);
+            // The cell reads its item again, and updates its content if it changed
+            cell.updateIndex(slot);
+        }
+    }
+
+    /**
+     * Unbinds a cell from its item and puts it back into the pool.
+     * @param cell cell to release
+     */
+    private void release(ListCell<T> cell) {
+        // The cell was discarded in the meantime
+        if (cell.getParent() != this) {
+            return;
+        }
+
+        // The animation would keep affecting the cell after it is reused
+        stopAnimation(cell);
+
+        // A cell is reset only once the relocation no longer affects it
+        if (relocating.contains(cell)) {
+            releasedWhileRelocating.add(cell);
+            cell.setVisible(false);
+            return;
+        }
+
+        slots.set(slotIndexes.get(cell), null);
+        cell.updateIndex(-1);
+        cell.setVisible(false);
+
+        // Undo what the animations might have changed
+        cell.setOpacity(1);
+        cell.setTranslateX(0);
+        cell.setTranslateY(0);
+        cell.setScaleX(1);
+        cell.setScaleY(1);
+        cell.setRotate(0);
+
+        pool.push(cell);
+    }
+
+    /**
+     * Discards every cell, e.g. after the cell factory changes.
+     */
+    private void clearCells() {
+        final List<Timeline> running = new ArrayList<>(animations.values());
+        animations.clear();
+        running.forEach(Timeline::stop);
+
+        getChildren().removeIf(node -> node != scrollBar);
+        cells.clear();
+        pool.clear();
+        slots.clear();
+        slotIndexes.clear();
+        relocating.clear();
+        releasedWhileRelocating.clear();
+        requestLayout();
+    }
+
+    /**
+     * @return a new cell from the cell factory, or a default one that displays items as text
+     */
+    private ListCell<T> createCell() {
+        final Callback<AnimatedVirtualList<T>, ListCell<T>> factory = getCellFactory();
+        if (factory != null) {
+            return factory.call(this);
+        }
+
+        return new ListCell<T>() {
+            @Override
+            protected void updateItem(T item, boolean empty) {
+                super.updateItem(item, empty);
+                setText(empty || item == null ? null : item.toString());
+            }
+        };
+    }
+
+    /**
+     * @param offset scroll offset to clamp
+     * @return the offset, clamped between the top of the first cell and the bottom of the last one
+     */
+    private double clampScrollOffset(double offset) {
+        final double max = items.size() * getFixedCellSize() - getHeight();
+        return Math.max(0, Math.min(max, offset));
+    }
+
+    /**
+     * @return index of the first item that should have a cell
+     */
+    private int getFirstVisibleIndex() {
+        return Math.max(0, (int) Math.floor(getScrollOffset() / getFixedCellSize()) - getOverscan());
+    }
+
+    /**
+     * @param size amount of items
+     * @return index of the last item that should have a cell
+     */
+    private int getLastVisibleIndex(int size) {
+        final int last = (int) Math.ceil((getScrollOffset() + getHeight()) / getFixedCellSize()) - 1 + getOverscan();
+        return Math.min(size - 1, last);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void layoutChildren() {
+        final double cellSize = getFixedCellSize();
+        final double width = getWidth();
+        final double height = getHeight();
+
+        // Scroll bar
+        final double contentHeight = items.size() * cellSize;
+        final boolean scrollable = contentHeight > height;
+        final double scrollBarWidth = scrollable ? scrollBar.prefWidth(-1) : 0;
+        scrollBar.setVisible(scrollable);
+        scrollBar.setMax(Math.max(0, contentHeight - height));
+        scrollBar.setVisibleAmount(height);
+        scrollBar.setUnitIncrement(cellSize);
+        scrollBar.setBlockIncrement(height);
+        scrollBar.resizeRelocate(width - scrollBarWidth, 0, scrollBarWidth, height);
+
+        final double clampedOffset = clampScrollOffset(getScrollOffset());
+        if (clampedOffset != getScrollOffset()) {
+            // Triggers a new layout
+            setScrollOffset(clampedOffset);
+            return;
+        }
+
+        final int first = getFirstVisibleIndex();
+        final int last = getLastVisibleIndex(items.size());
+
+        // Release the cells that went out of range
+        final Iterator<Map.Entry<Integer, ListCell<T>>> iterator = cells.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry<Integer, ListCell<T>> entry = iterator.next();
+            if (entry.getKey() < first || entry.getKey() > last) {
+                release(entry.getValue());
+                iterator.remove();
+            }
+        }
+
+        final List<KeyValue> relocations = new ArrayList<>();
+        final boolean relocate = !firstPositions.isEmpty();
+        if (relocate && relocation != null) {
+            // The running relocation is interrupted: the recorded positions already account for it
+            relocation.stop();
+            relocation = null;
+            endRelocation();
+        }
+
+        // Bind, place and animate the cells in range
+        for (int i = first; i <= last; i++) {
+            ListCell<T> cell = cells.get(i);
+            if (cell == null) {
+                cell = acquire();
+                cells.put(i, cell);
+            }
+
+            bind(cell, items.get(i));
+            final double y = i * cellSize - getScrollOffset();
+            cell.resizeRelocate(0, y, width - scrollBarWidth, cellSize);
+
+            if (entering.contains(i)) {
+                playIn(cell);
+                continue;
+            }
+
+            final Double firstY = firstPositions.get(cell);
+            if (firstY != null && firstY != y) {
+                cell.setTranslateY(firstY - y);
+                relocations.add(new KeyValue(cell.translateYProperty(), 0, getRelocationCurve().toInterpolator()));
+                relocating.add(cell);
+            } else if (relocate) {
+                // The cell may keep the offset of the interrupted relocation
+                cell.setTranslateY(0);
+            }
+        }
+
+        entering.clear();
+        firstPositions.clear();
+
+        if (!relocations.isEmpty()) {
+            relocation = new Timeline(new KeyFrame(
+                    AnimatedContainerHandler.getDuration(getIn()),
+                    relocations.toArray(new KeyValue[0])
+            ));
+            relocation.setOnFinished(e -> endRelocation());
+            relocation.play();
+        }
+    }
+
+    /**
+     * Pools the cells that were released while being relocated.
+     */
+    private void endRelocation() {
+        relocating.clear();
+        final List<ListCell<T>> released = new ArrayList<>(releasedWhileRelocating);
+        releasedWhileRelocating.clear();
+        released.forEach(this::release);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected double computePrefWidth(double height) {
+        return 250;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected double computePrefHeight(double width) {
+        return 400;
+    }
+}
@@ -0,0 +1,98 @@
+package eu.iamgio.animated.transition.container;
+
+/**
+ * Limits the animations an {@link AnimatedContainer} plays, so that bulk changes to its children
+ * degrade gracefully instead of stalling the UI.
+ * Nodes that are not animated because of the policy are added or removed immediately.
+ * By default, no limit is applied.
+ * @see AnimatedContainer#setAnimationPolicy(ContainerAnimationPolicy)
+ * @author Giorgio Garofalo
+ */
+public class ContainerAnimationPolicy {
+
+    private int maxConcurrentAnimations = 0;
+    private int maxBatchSize = 0;
+    private boolean animateOnlyVisible = false;
+
+    /**
+     * @return maximum amount of entrance and exit animations that can run at the same time, or 0 if there is no limit
+     */
+    public int getMaxConcurrentAnimations() {
+        return maxConcurrentAnimations;
+    }
+
+    /**
+     * Note: using the fluent setter {@link #withMaxConcurrentAnimations(int)} is suggested.
+     *       This method is kept only for FXML compatibility.
+     * @param maxConcurrentAnimations maximum amount of entrance and exit animations that can run at the same time,
+     *                                or 0 if there is no limit
+     */
+    public void setMaxConcurrentAnimations(int maxConcurrentAnimations) {
+        this.maxConcurrentAnimations = maxConcurrentAnimations;
+    }
+
+    /**
+     * @param maxConcurrentAnimations maximum amount of entrance and exit animations that can run at the same time,
+     *                                or 0 if there is no limit. Nodes beyond the limit are not animated
+     * @return this for concatenation
+     */
+    public ContainerAnimationPolicy withMaxConcurrentAnimations(int maxConcurrentAnimations) {
+        this.maxConcurrentAnimations = maxConcurrentAnimations;
+        return this;
+    }
+
+    /**
+     * @return maximum amount of nodes that can be added or removed within a pulse while still being animated,
+     *         or 0 if there is no limit
+     */
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    /**
+     * Note: using the fluent setter {@link #withMaxBatchSize(int)} is suggested.
+     *       This method is kept only for FXML compatibility.
+     * @param maxBatchSize maximum amount of nodes that can be added or removed within a pulse while still being animated,
+     *                     or 0 if there is no limit
+     */
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * @param maxBatchSize maximum amount of nodes that can be added or removed within a pulse while still being animated,
+     *                     or 0 if there is no limit. If a batch exceeds it, none of its changes is animated,
+     *                     and the animations it already started are brought to their end
+     * @return this for concatenation
+     */
+    public ContainerAnimationPolicy withMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+        return this;
+    }
+
+    /**
+     * @return whether only the nodes that are within the visible area of the scene are animated
+     */
+    public boolean isAnimateOnlyVisible() {
+        return animateOnlyVisible;
+    }
+
+    /**
+     * Note: using the fluent setter {@link #withAnimateOnlyVisible(boolean)} is suggested.
+     *       This method is kept only for FXML compatibility.
+     * @param animateOnlyVisible whether only the nodes that are within the visible area of the scene are animated
+     */
+    public void setAnimateOnlyVisible(boolean animateOnlyVisible) {
+        this.animateOnlyVisible = animateOnlyVisible;
+    }
+
+    /**
+     * @param animateOnlyVisible whether only the nodes that are within the visible area of the scene,
+     *                           i.e. not scrolled or clipped away, are animated
+     * @return this for concatenation
+     */
+    public ContainerAnimationPolicy withAnimateOnlyVisible(boolean animateOnlyVisible) {
+        this.animateOnlyVisible = animateOnlyVisible;
+        return this;
+    }
+}
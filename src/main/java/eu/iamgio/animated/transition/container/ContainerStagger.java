@@ -0,0 +1,111 @@
+package eu.iamgio.animated.transition.container;
+
+import javafx.util.Duration;
+
+/**
+ * Spreads the entrance animations of nodes added to an {@link AnimatedContainer} at once across several pulses,
+ * so that they start one after the other rather than all together.
+ * Nodes waiting for their entrance animation are hidden by an empty clip, although they already take their room in the layout.
+ * By default, no staggering is applied.
+ * @see AnimatedContainer#setStagger(ContainerStagger)
+ * @author Giorgio Garofalo
+ */
+public class ContainerStagger {
+
+    private Duration delay = Duration.ZERO;
+    private int maxInFlight = 0;
+    private Duration frameBudget = Duration.ZERO;
+
+    /**
+     * @return delay between the start of an entrance animation and the next one
+     */
+    public Duration getDelay() {
+        return delay;
+    }
+
+    /**
+     * Note: using the fluent setter {@link #withDelay(Duration)} is suggested.
+     *       This method is kept only for FXML compatibility.
+     * @param delay delay between the start of an entrance animation and the next one
+     */
+    public void setDelay(Duration delay) {
+        this.delay = delay;
+    }
+
+    /**
+     * @param delay delay between the start of an entrance animation and the next one
+     * @return this for concatenation
+     */
+    public ContainerStagger withDelay(Duration delay) {
+        this.delay = delay;
+        return this;
+    }
+
+    /**
+     * @return maximum amount of entrance animations that can run at the same time, or 0 if there is no limit
+     */
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * Note: using the fluent setter {@link #withMaxInFlight(int)} is suggested.
+     *       This method is kept only for FXML compatibility.
+     * @param maxInFlight maximum amount of entrance animations that can run at the same time, or 0 if there is no limit
+     */
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * @param maxInFlight maximum amount of entrance animations that can run at the same time, or 0 if there is no limit.
+     *                    Further animations wait for a running one to finish
+     * @return this for concatenation
+     */
+    public ContainerStagger withMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+        return this;
+    }
+
+    /**
+     * @return time each pulse may spend starting entrance animations, or {@link Duration#ZERO} if there is no limit
+     */
+    public Duration getFrameBudget() {
+        return frameBudget;
+    }
+
+    /**
+     * Note: using the fluent setter {@link #withFrameBudget(Duration)} is suggested.
+     *       This method is kept only for FXML compatibility.
+     * @param frameBudget time each pulse may spend starting entrance animations, or {@link Duration#ZERO} if there is no limit
+     */
+    public void setFrameBudget(Duration frameBudget) {
+        this.frameBudget = frameBudget;
+    }
+
+    /**
+     * @param frameBudget time each pulse may spend starting entrance animations, or {@link Duration#ZERO} if there is no limit.
+     *                    Once it is exceeded, further animations are started by the next pulse.
+     *                    At least one animation is started by each pulse
+     * @return this for concatenation
+     */
+    public ContainerStagger withFrameBudget(Duration frameBudget) {
+        this.frameBudget = frameBudget;
+        return this;
+    }
+
+    /**
+     * @return whether entrance animations are staggered at all
+     */
+    public boolean isEnabled() {
+        return isPositive(delay) || maxInFlight > 0 || isPositive(frameBudget);
+    }
+
+    /**
+     * @param duration duration to check
+     * @return whether the duration is not <tt>null</tt> and longer than zero
+     */
+    static boolean isPositive(Duration duration) {
+        return duration != null && duration.greaterThan(Duration.ZERO);
+    }
+}
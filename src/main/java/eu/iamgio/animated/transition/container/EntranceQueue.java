@@ -0,0 +1,217 @@
+package eu.iamgio.animated.transition.container;
+
+import javafx.animation.AnimationTimer;
+import javafx.animation.Timeline;
+import javafx.beans.property.ReadOnlyProperty;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.scene.Node;
+import javafx.scene.shape.Rectangle;
+import javafx.util.Duration;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A single queue of nodes waiting for their entrance animation, which is drained across pulses
+ * according to the {@link ContainerStagger} of a container.
+ * The queue is driven by one {@link AnimationTimer}, registered on the pulse only while nodes are waiting.
+ * <p>
+ * Waiting nodes are hidden by an empty clip rather than by their visibility or opacity, which are left to the user:
+ * their own clip is restored once they are released. A waiting node whose clip is changed by someone else
+ * is no longer waiting.
+ */
+class EntranceQueue {
+
+    // Marks the absence of a scheduled release
+    private static final long UNSET = Long.MIN_VALUE;
+
+    private final AnimatedContainer container;
+
+    // Plays the entrance animation of a node and returns it
+    private final Function<Node, Timeline> player;
+
+    // Waiting nodes, in insertion order, mapped to the clip they had before being queued.
+    // The map is equality-based: since nodes do not override equals and hashCode, they end up compared by reference
+    private final Map<Node, Node> queue = new LinkedHashMap<>();
+
+    // Whether the clip of a node is being changed by the queue itself
+    private boolean clipping;
+
+    private final ChangeListener<Node> clipListener = (observable, oldClip, clip) -> onClipChanged(observable);
+
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            release(now);
+        }
+    };
+
+    // Amount of entrance animations started by the queue that are running
+    private int inFlight;
+
+    // Timestamp the next node can be released at
+    private long nextRelease = UNSET;
+
+    // Whether the timer is registered on the pulse
+    private boolean timerRunning;
+
+    /**
+     * Instantiates a queue.
+     * @param container container whose entrances are queued
+     * @param player plays the entrance animation of a node and returns it
+     */
+    EntranceQueue(AnimatedContainer container, Function<Node, Timeline> player) {
+        this.container = container;
+        this.player = player;
+    }
+
+    /**
+     * Queues a node, which is kept hidden until its entrance animation is played.
+     * @param node node to queue
+     */
+    void add(Node node) {
+        if (!queue.containsKey(node)) {
+            queue.put(node, node.getClip());
+            setClip(node, new Rectangle());
+            node.clipProperty().addListener(clipListener);
+        }
+        if (!timerRunning) {
+            timerRunning = true;
+            timer.start();
+        }
+    }
+
+    /**
+     * Removes a node from the queue without animating it, if it was waiting.
+     * @param node node to remove
+     * @return whether the node was waiting
+     */
+    boolean remove(Node node) {
+        if (queue.containsKey(node)) {
+            show(node, queue.remove(node));
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Shows all the waiting nodes without animating them.
+     */
+    void clear() {
+        queue.forEach(this::show);
+        queue.clear();
+    }
+
+    /**
+     * Stops hiding a node.
+     * @param node node to show
+     * @param clip clip the node had before being queued
+     */
+    private void show(Node node, Node clip) {
+        node.clipProperty().removeListener(clipListener);
+        setClip(node, clip);
+    }
+
+    /**
+     * Changes the clip of a node without it being handled as an external change.
+     * @param node node to clip
+     * @param clip clip to set
+     */
+    private void setClip(Node node, Node clip) {
+        clipping = true;
+        node.setClip(clip);
+        clipping = false;
+    }
+
+    /**
+     * Called when the clip of a waiting node changes: if it was changed by someone else, the node is shown
+     * and no longer waiting, and the new clip is kept.
+     * @param observable clip property of the node
+     */
+    private void onClipChanged(ObservableValue<? extends Node> observable) {
+        if (clipping) {
+            return;
+        }
+        final Node node = (Node) ((ReadOnlyProperty<?>) observable).getBean();
+        observable.removeListener(clipListener);
+        queue.remove(node);
+    }
+
+    /**
+     * @return amount of waiting nodes
+     */
+    int size() {
+        return queue.size();
+    }
+
+    /**
+     * Plays the entrance animation of the nodes whose turn came.
+     * @param now timestamp of the current pulse
+     */
+    private void release(long now) {
+        final ContainerStagger stagger = container.getStagger();
+        final long start = System.nanoTime();
+        final long delay = stagger != null && ContainerStagger.isPositive(stagger.getDelay()) ? toNanos(stagger.getDelay()) : 0;
+        final long budget = stagger != null && ContainerStagger.isPositive(stagger.getFrameBudget()) ? toNanos(stagger.getFrameBudget()) : 0;
+        final int maxInFlight = stagger != null ? stagger.getMaxInFlight() : 0;
+
+        if (nextRelease == UNSET) {
+            nextRelease = now;
+        }
+
+        boolean released = false;
+        final Iterator<Map.Entry<Node, Node>> iterator = queue.entrySet().iterator();
+        while (iterator.hasNext() && now >= nextRelease
+                && (maxInFlight <= 0 || inFlight < maxInFlight)
+                && (budget <= 0 || !released || System.nanoTime() - start < budget)) {
+            final Map.Entry<Node, Node> entry = iterator.next();
+            final Node node = entry.getKey();
+            iterator.remove();
+            show(node, entry.getValue());
+            play(node);
+            nextRelease += delay;
+            released = true;
+        }
+
+        if (queue.isEmpty()) {
+            timer.stop();
+            timerRunning = false;
+            nextRelease = UNSET;
+        } else if (nextRelease < now) {
+            // Releases that were held back by the in-flight count or by the budget do not pile up
+            nextRelease = now;
+        }
+    }
+
+    /**
+     * Plays the entrance animation of a node and keeps count of it until it stops.
+     * @param node node to animate
+     */
+    private void play(Node node) {
+        final Timeline timeline = player.apply(node);
+        // The animation starts in the middle of a pulse: its first frame is applied right away, so that the node does not flash
+        timeline.jumpTo(Duration.ZERO);
+        inFlight++;
+        timeline.statusProperty().addListener(new ChangeListener<javafx.animation.Animation.Status>() {
+            @Override
+            public void changed(ObservableValue<? extends javafx.animation.Animation.Status> observable,
+                                javafx.animation.Animation.Status oldStatus, javafx.animation.Animation.Status status) {
+                if (status == javafx.animation.Animation.Status.STOPPED) {
+                    timeline.statusProperty().removeListener(this);
+                    inFlight--;
+                }
+            }
+        });
+    }
+
+    /**
+     * @param duration duration to convert
+     * @return the duration in nanoseconds
+     */
+    private static long toNanos(Duration duration) {
+        return (long) (duration.toMillis() * 1_000_000);
+    }
+}